@@ -0,0 +1,57 @@
+package com.example.lb3.demo.benchmark;
+
+import com.example.lb3.demo.person.PersonAgeCount;
+import com.example.lb3.demo.person.PersonAgeStatistics;
+import com.example.lb3.demo.person.PersonRepository;
+import com.example.lb3.demo.person.PersonService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The in-memory age index behind PersonService against the repository queries it replaces
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgeIndexBenchmark {
+    private BenchmarkDatabase database;
+    private PersonService service;
+    private PersonRepository repository;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.start();
+        service = database.bean(PersonService.class);
+        repository = database.bean(PersonRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public long countByAgeIndex() {
+        return service.countPeopleByAge(next++ % BenchmarkDatabase.AGES);
+    }
+
+    @Benchmark
+    public long countByAgeRepository() {
+        return repository.countByAge(next++ % BenchmarkDatabase.AGES);
+    }
+
+    @Benchmark
+    public PersonAgeStatistics histogramByAgeIndex() {
+        return service.getAgeStatistics(null, null, 0, BenchmarkDatabase.AGES - 1);
+    }
+
+    @Benchmark
+    public List<PersonAgeCount> histogramByAgeRepository() {
+        return repository.countByAgeGroups("", "", 0, BenchmarkDatabase.AGES - 1);
+    }
+}
\ No newline at end of file
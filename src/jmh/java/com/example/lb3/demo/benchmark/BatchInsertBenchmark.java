@@ -0,0 +1,56 @@
+package com.example.lb3.demo.benchmark;
+
+import com.example.lb3.demo.person.Person;
+import com.example.lb3.demo.person.PersonService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// PersonService.saveAll with pooled sequence ids and JDBC batching, the rows are removed after
+// every iteration so the table does not grow
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchInsertBenchmark {
+    private BenchmarkDatabase database;
+    private PersonService service;
+
+    @Param({"100", "1000"})
+    public int batchSize;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.start();
+        service = database.bean(PersonService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        database.bean(JdbcTemplate.class).update("DELETE FROM person WHERE email LIKE 'batch%'");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Person> saveAll() {
+        List<Person> people = IntStream.range(0, batchSize)
+                .mapToObj(i -> {
+                    int index = next++;
+                    return Person.builder().name("Batch " + index).email("batch" + index + "@example.org")
+                            .age(index % BenchmarkDatabase.AGES).build();
+                })
+                .toList();
+        return service.saveAll(people);
+    }
+}
\ No newline at end of file
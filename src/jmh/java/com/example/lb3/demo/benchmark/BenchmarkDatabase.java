@@ -0,0 +1,87 @@
+package com.example.lb3.demo.benchmark;
+
+import com.example.lb3.demo.DemoApplication;
+import com.example.lb3.demo.person.PersonAgeIndex;
+import com.example.lb3.demo.person.PersonEmailFilter;
+import com.example.lb3.demo.person.PersonImportService;
+import com.example.lb3.demo.person.PersonNameIndex;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// An embedded PostgreSQL with the application context on top, seeded with ROWS generated persons:
+// "Person <n>", person<n>@example.com, ages 0 to 99 evenly. Started once per fork and benchmark.
+final class BenchmarkDatabase implements AutoCloseable {
+    static final int ROWS = 100_000;
+    static final int AGES = 100;
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+    private final long[] ids;
+
+    private BenchmarkDatabase(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+        this.ids = bean(JdbcTemplate.class).queryForList("SELECT id FROM person ORDER BY id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    static BenchmarkDatabase start() throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.docker.compose.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--logging.level.root=WARN");
+        try {
+            seed(context);
+            return new BenchmarkDatabase(postgres, context);
+        } catch (RuntimeException e) {
+            context.close();
+            postgres.close();
+            throw e;
+        }
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    long id(int index) {
+        return ids[index % ids.length];
+    }
+
+    static String email(int index) {
+        return "person" + index + "@example.com";
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        StringBuilder csv = new StringBuilder("name,email,age\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("Person ").append(i).append(',').append(email(i)).append(',').append(i % AGES).append('\n');
+        }
+        context.getBean(PersonImportService.class).importPersons(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), PersonImportService.Format.CSV);
+        context.getBean(JdbcTemplate.class).execute("ANALYZE person");
+        // The import schedules these in the background, measurements should not race them
+        context.getBean(PersonAgeIndex.class).rebuild();
+        context.getBean(PersonNameIndex.class).rebuild();
+        context.getBean(PersonEmailFilter.class).rebuild();
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        postgres.close();
+    }
+}
\ No newline at end of file
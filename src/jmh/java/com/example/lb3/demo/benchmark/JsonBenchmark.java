@@ -0,0 +1,50 @@
+package com.example.lb3.demo.benchmark;
+
+import com.example.lb3.demo.person.Person;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Jackson as configured by Spring Boot, for single persons and a default page of 100
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Person person;
+    private String personJson;
+    private List<Person> page;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        person = Person.builder().id(42L).name("John Doe").email("john.doe@example.com").age(35).version(3).build();
+        personJson = objectMapper.writeValueAsString(person);
+        page = IntStream.range(0, 100)
+                .mapToObj(i -> Person.builder().id((long) i).name("Person " + i).email("person" + i + "@example.com")
+                        .age(i % 100).build())
+                .toList();
+    }
+
+    @Benchmark
+    public String serializePerson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(person);
+    }
+
+    @Benchmark
+    public Person deserializePerson() throws JsonProcessingException {
+        return objectMapper.readValue(personJson, Person.class);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
\ No newline at end of file
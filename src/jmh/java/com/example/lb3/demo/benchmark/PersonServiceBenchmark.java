@@ -0,0 +1,77 @@
+package com.example.lb3.demo.benchmark;
+
+import com.example.lb3.demo.person.Person;
+import com.example.lb3.demo.person.PersonService;
+import com.example.lb3.demo.person.PersonSpecifications;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Service reads against the embedded database: validity checks, the cached lookups and list pages
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonServiceBenchmark {
+    private BenchmarkDatabase database;
+    private PersonService service;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.start();
+        service = database.bean(PersonService.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public boolean isValidForCreation() {
+        int index = next++;
+        return service.isValidForCreation(Person.builder().name("New Person").email("new" + index + "@example.org")
+                .age(30).build());
+    }
+
+    @Benchmark
+    public boolean isValidForCreationTakenEmail() {
+        return service.isValidForCreation(Person.builder().name("New Person")
+                .email(BenchmarkDatabase.email(next++ % BenchmarkDatabase.ROWS)).age(30).build());
+    }
+
+    @Benchmark
+    public boolean isValidForUpdate() {
+        int index = next++ % BenchmarkDatabase.ROWS;
+        return service.isValidForUpdate(Person.builder().id(database.id(index)).name("Person " + index)
+                .email(BenchmarkDatabase.email(index)).age(30).build());
+    }
+
+    @Benchmark
+    public Optional<Person> getPersonById() {
+        return service.getPersonById(database.id(next++));
+    }
+
+    @Benchmark
+    public Optional<Person> findByEmail() {
+        return service.findByEmail(BenchmarkDatabase.email(next++ % BenchmarkDatabase.ROWS));
+    }
+
+    @Benchmark
+    public List<Person> getPersonsPage() {
+        return service.getPersons(database.id(next++), PersonService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Person> searchByNameContaining() {
+        return service.findPage(PersonSpecifications.nameContainsIgnoreCase("son " + (next++ % 10_000) + "5"),
+                Sort.by("id"), PersonService.DEFAULT_PAGE_SIZE);
+    }
+}
\ No newline at end of file
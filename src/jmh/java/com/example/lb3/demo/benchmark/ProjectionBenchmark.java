@@ -0,0 +1,56 @@
+package com.example.lb3.demo.benchmark;
+
+import com.example.lb3.demo.person.Person;
+import com.example.lb3.demo.person.PersonFields;
+import com.example.lb3.demo.person.PersonService;
+import com.example.lb3.demo.person.PersonSpecifications;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The largest page of an age range read as entities and as sparse fieldsets
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+    private static final int MIN_AGE = 10;
+    private static final int MAX_AGE = 19;
+    private static final Sort BY_AGE = Sort.by("age", "id");
+
+    private BenchmarkDatabase database;
+    private PersonService service;
+
+    @Param({"id", "name", "name,email,age"})
+    public String fields;
+    private PersonFields selected;
+
+    @Setup
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.start();
+        service = database.bean(PersonService.class);
+        selected = PersonFields.valueOf(fields);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Person> entities() {
+        return service.findPage(PersonSpecifications.ageBetween(MIN_AGE, MAX_AGE), BY_AGE, PersonService.MAX_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> sparseFieldset() {
+        return service.findFields(selected, PersonSpecifications.ageBetween(MIN_AGE, MAX_AGE), BY_AGE,
+                PersonService.MAX_PAGE_SIZE);
+    }
+}
\ No newline at end of file
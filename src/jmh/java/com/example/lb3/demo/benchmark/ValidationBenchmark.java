@@ -0,0 +1,48 @@
+package com.example.lb3.demo.benchmark;
+
+import com.example.lb3.demo.person.Person;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Bean validation of the Person constraints, as done for every request body and imported row
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+    private ValidatorFactory factory;
+    private Validator validator;
+    private Person valid;
+    private Person invalid;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        valid = Person.builder().name("John Doe").email("john.doe@example.com").age(35).build();
+        invalid = Person.builder().name(" ").email("not an email").age(-1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Person>> validatePerson() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Person>> validateInvalidPerson() {
+        return validator.validate(invalid);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.example.lb3.demo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Open model: requests start at a constant rate whether or not earlier ones have completed, each on
+// its own virtual thread. Latency is measured from the scheduled start, so a server that falls behind
+// shows up as latency instead of quietly lowering the offered load (coordinated omission).
+final class ArrivalRateGenerator {
+    private static final Scenario[] MIX = Scenario.values();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final URI base;
+    private final int rows;
+    private final Duration requestTimeout;
+    private final AtomicLong sequence = new AtomicLong();
+
+    ArrivalRateGenerator(URI base, int rows, Duration requestTimeout) {
+        this.base = base;
+        this.rows = rows;
+        this.requestTimeout = requestTimeout;
+    }
+
+    Run run(double rate, Duration duration) throws InterruptedException {
+        Map<Scenario, LatencyRecorder> recorders = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : MIX) {
+            recorders.put(scenario, new LatencyRecorder());
+        }
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long requests = duration.toNanos() / interval;
+        AtomicLong lastCompletion = new AtomicLong();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long scheduled = start + i * interval;
+                long delay = scheduled - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Scenario scenario = MIX[(int) (i % MIX.length)];
+                executor.execute(() -> {
+                    boolean error = !send(scenario);
+                    long completed = System.nanoTime();
+                    recorders.get(scenario).record(completed - scheduled, error);
+                    lastCompletion.accumulateAndGet(completed, Math::max);
+                });
+            }
+            executor.shutdown();
+            // A request is given up after requestTimeout, so this only waits for the stragglers
+            executor.awaitTermination(requestTimeout.toSeconds() + 10, TimeUnit.SECONDS);
+        }
+        return new Run(recorders, Duration.ofNanos(Math.max(lastCompletion.get() - start, duration.toNanos())));
+    }
+
+    private boolean send(Scenario scenario) {
+        try {
+            HttpResponse<Void> response = client.send(
+                    scenario.request(base, rows, sequence.incrementAndGet()).timeout(requestTimeout).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == scenario.expectedStatus();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // elapsed runs until the last response, which is later than the schedule when the server fell behind
+    record Run(Map<Scenario, LatencyRecorder> recorders, Duration elapsed) {
+
+        LatencyRecorder.Summary total() {
+            return LatencyRecorder.merge(recorders.values()).summarize();
+        }
+
+        double throughput() {
+            LatencyRecorder.Summary total = total();
+            return (total.count() - total.errors()) / (elapsed.toNanos() / 1e9);
+        }
+    }
+}
\ No newline at end of file
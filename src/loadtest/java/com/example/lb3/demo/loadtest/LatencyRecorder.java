@@ -0,0 +1,57 @@
+package com.example.lb3.demo.loadtest;
+
+import java.util.Arrays;
+
+// Latencies of one scenario in nanoseconds. A run records a few hundred thousand samples at most,
+// so they are kept as they are and percentiles are exact.
+final class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    synchronized void record(long latencyNanos, boolean error) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized Summary summarize() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Summary(count, errors,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    static LatencyRecorder merge(Iterable<LatencyRecorder> recorders) {
+        LatencyRecorder merged = new LatencyRecorder();
+        for (LatencyRecorder recorder : recorders) {
+            synchronized (recorder) {
+                for (int i = 0; i < recorder.count; i++) {
+                    merged.record(recorder.latencies[i], false);
+                }
+                merged.errors += recorder.errors;
+            }
+        }
+        return merged;
+    }
+
+    // Nearest rank
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    record Summary(long count, long errors, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+
+        double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+    }
+}
\ No newline at end of file
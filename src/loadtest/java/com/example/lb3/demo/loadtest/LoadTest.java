@@ -0,0 +1,147 @@
+package com.example.lb3.demo.loadtest;
+
+import com.example.lb3.demo.DemoApplication;
+import com.example.lb3.demo.person.Person;
+import com.example.lb3.demo.person.PersonAgeIndex;
+import com.example.lb3.demo.person.PersonEmailFilter;
+import com.example.lb3.demo.person.PersonNameIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Boots the application on a random port against an embedded PostgreSQL, seeds settings.rows()
+// persons, replays the person-test.jmx traffic at a constant arrival rate and exits with status 1
+// when throughput, error rate or latency miss the limits in LoadTestSettings.
+public final class LoadTest {
+    private static final String SEED =
+            "INSERT INTO person (id, name, email, age, version)"
+            + " SELECT n, 'Person ' || n, 'person' || n || '@example.com', n % 100, 0"
+            + " FROM generate_series(?::bigint, ?::bigint) AS n";
+    private static final int SEED_CHUNK_SIZE = 100_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        List<String> violations;
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+                ConfigurableApplicationContext context = start(postgres)) {
+            seed(context, settings.rows());
+            URI base = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            ArrivalRateGenerator generator = new ArrivalRateGenerator(base, settings.rows(), settings.requestTimeout());
+
+            System.out.printf("Warming up for %s at %.0f requests/s%n", settings.warmup(), settings.rate());
+            generator.run(settings.rate(), settings.warmup());
+            System.out.printf("Measuring for %s at %.0f requests/s%n", settings.duration(), settings.rate());
+            ArrivalRateGenerator.Run run = generator.run(settings.rate(), settings.duration());
+
+            print(run);
+            violations = check(run, settings);
+            writeReport(run, settings, violations);
+        }
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> System.out.println("FAILED: " + violation));
+            System.exit(1);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(EmbeddedPostgres postgres) {
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.docker.compose.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--logging.level.root=ERROR");
+    }
+
+    // Set-based inserts in chunks of SEED_CHUNK_SIZE rows, then the sequence is moved past
+    // the seeded ids and the in-memory indexes are built before any request is sent
+    private static void seed(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long started = System.currentTimeMillis();
+        for (long first = 1; first <= rows; first += SEED_CHUNK_SIZE) {
+            jdbcTemplate.update(SEED, first, Math.min(rows, first + SEED_CHUNK_SIZE - 1));
+        }
+        jdbcTemplate.queryForObject("SELECT setval('person_seq', ?)", Long.class, rows + Person.ID_ALLOCATION_SIZE);
+        jdbcTemplate.execute("VACUUM ANALYZE person");
+        context.getBean(PersonAgeIndex.class).rebuild();
+        context.getBean(PersonNameIndex.class).rebuild();
+        context.getBean(PersonEmailFilter.class).rebuild();
+        System.out.printf("Seeded %d persons in %d ms%n", rows, System.currentTimeMillis() - started);
+    }
+
+    private static void print(ArrivalRateGenerator.Run run) {
+        System.out.printf("%-24s %8s %7s %9s %9s %9s %9s%n", "scenario", "requests", "errors", "p50 ms", "p99 ms",
+                "p99.9 ms", "max ms");
+        run.recorders().forEach((scenario, recorder) -> print(scenario.name(), recorder.summarize()));
+        print("TOTAL", run.total());
+        System.out.printf("Throughput %.1f requests/s over %s%n", run.throughput(), run.elapsed());
+    }
+
+    private static void print(String name, LatencyRecorder.Summary summary) {
+        System.out.printf("%-24s %8d %7d %9.1f %9.1f %9.1f %9.1f%n", name, summary.count(), summary.errors(),
+                millis(summary.p50Nanos()), millis(summary.p99Nanos()), millis(summary.p999Nanos()),
+                millis(summary.maxNanos()));
+    }
+
+    private static List<String> check(ArrivalRateGenerator.Run run, LoadTestSettings settings) {
+        List<String> violations = new ArrayList<>();
+        LatencyRecorder.Summary total = run.total();
+        if (run.throughput() < settings.minThroughput()) {
+            violations.add("throughput %.1f requests/s is below %.1f".formatted(run.throughput(),
+                    settings.minThroughput()));
+        }
+        if (total.errorRate() > settings.maxErrorRate()) {
+            violations.add("error rate %.4f is above %.4f".formatted(total.errorRate(), settings.maxErrorRate()));
+        }
+        checkLatency(violations, "p50", total.p50Nanos(), settings.maxP50());
+        checkLatency(violations, "p99", total.p99Nanos(), settings.maxP99());
+        checkLatency(violations, "p99.9", total.p999Nanos(), settings.maxP999());
+        return violations;
+    }
+
+    private static void checkLatency(List<String> violations, String name, long nanos, Duration limit) {
+        if (!limit.isZero() && nanos > limit.toNanos()) {
+            violations.add("%s latency %.1f ms is above %d ms".formatted(name, millis(nanos), limit.toMillis()));
+        }
+    }
+
+    private static void writeReport(ArrivalRateGenerator.Run run, LoadTestSettings settings, List<String> violations)
+            throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("throughput", run.throughput());
+        report.put("elapsedMillis", run.elapsed().toMillis());
+        report.put("total", run.total());
+        Map<String, LatencyRecorder.Summary> scenarios = new LinkedHashMap<>();
+        run.recorders().forEach((scenario, recorder) -> scenarios.put(scenario.name(), recorder.summarize()));
+        report.put("scenarios", scenarios);
+        report.put("violations", violations);
+        Files.createDirectories(settings.report().toAbsolutePath().getParent());
+        new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(settings.report().toFile(), report);
+        System.out.println("Report written to " + settings.report());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.lb3.demo.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Read from loadtest.* system properties, the loadtest Maven profile passes its properties through.
+// Latency limits are durations such as 50ms, a limit of 0 is not checked.
+record LoadTestSettings(
+        int rows,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Duration requestTimeout,
+        double minThroughput,
+        Duration maxP50,
+        Duration maxP99,
+        Duration maxP999,
+        double maxErrorRate,
+        Path report) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.rows", 1_000_000),
+                doubleProperty("loadtest.rate", 200),
+                durationProperty("loadtest.warmup", "10s"),
+                durationProperty("loadtest.duration", "60s"),
+                durationProperty("loadtest.request-timeout", "30s"),
+                doubleProperty("loadtest.min-throughput", 0),
+                durationProperty("loadtest.max-p50", "0s"),
+                durationProperty("loadtest.max-p99", "0s"),
+                durationProperty("loadtest.max-p999", "0s"),
+                doubleProperty("loadtest.max-error-rate", 0),
+                Path.of(System.getProperty("loadtest.report", "target/loadtest-result.json")));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static Duration durationProperty(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return DurationStyle.detectAndParse(value == null || value.isBlank() ? defaultValue : value);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.example.lb3.demo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+
+// The samplers of person-test.jmx, each run equally often as in the JMeter plan. Reads and updates
+// pick a random seeded person instead of the one created before, the seeded rows are
+// "Person <n>", person<n>@example.com, age n % 100 for n in 1..rows.
+enum Scenario {
+    CREATE_PERSON(201) {
+        @Override
+        HttpRequest.Builder request(URI base, int rows, long sequence) {
+            return post(base, "", person("Test User " + sequence, "user" + sequence + "@loadtest.example.com",
+                    random(18, 80)));
+        }
+    },
+    GET_PERSON(200) {
+        @Override
+        HttpRequest.Builder request(URI base, int rows, long sequence) {
+            return HttpRequest.newBuilder(base.resolve("/api/persons/" + random(1, rows))).GET();
+        }
+    },
+    UPDATE_PERSON(200) {
+        @Override
+        HttpRequest.Builder request(URI base, int rows, long sequence) {
+            int id = random(1, rows);
+            return HttpRequest.newBuilder(base.resolve("/api/persons/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(
+                            person("Updated User " + id, "person" + id + "@example.com", random(18, 80))));
+        }
+    },
+    SEARCH_NAME_CONTAINING(200) {
+        @Override
+        HttpRequest.Builder request(URI base, int rows, long sequence) {
+            // Four digits match about a hundred names per million rows
+            return HttpRequest.newBuilder(base.resolve("/api/persons/search/name/containing?keyword=Person+"
+                    + random(1000, 9999))).GET();
+        }
+    },
+    SEARCH_AGE_RANGE(200) {
+        @Override
+        HttpRequest.Builder request(URI base, int rows, long sequence) {
+            // person-test.jmx asks for ages 20 to 30, a tenth of the table here, so one age and ids only
+            int age = random(20, 30);
+            return HttpRequest.newBuilder(base.resolve("/api/persons/search/age/range?startAge=" + age
+                    + "&endAge=" + age + "&fields=id")).GET();
+        }
+    },
+    CREATE_INVALID_EMAIL(400) {
+        @Override
+        HttpRequest.Builder request(URI base, int rows, long sequence) {
+            return post(base, "", person("Invalid Email User", "invalid-email", 25));
+        }
+    },
+    CREATE_NEGATIVE_AGE(400) {
+        @Override
+        HttpRequest.Builder request(URI base, int rows, long sequence) {
+            return post(base, "", person("Negative Age User", "negative" + sequence + "@loadtest.example.com", -1));
+        }
+    },
+    CREATE_MISSING_NAME(400) {
+        @Override
+        HttpRequest.Builder request(URI base, int rows, long sequence) {
+            return post(base, "", """
+                    {"email": "noname%d@loadtest.example.com", "age": 25}""".formatted(sequence));
+        }
+    },
+    BATCH_CREATE(201) {
+        @Override
+        HttpRequest.Builder request(URI base, int rows, long sequence) {
+            return post(base, "/batch", "[" + person("Batch User 1_" + sequence,
+                    "batch1_" + sequence + "@loadtest.example.com", random(20, 40))
+                    + "," + person("Batch User 2_" + sequence,
+                    "batch2_" + sequence + "@loadtest.example.com", random(20, 40)) + "]");
+        }
+    };
+
+    private final int expectedStatus;
+
+    Scenario(int expectedStatus) {
+        this.expectedStatus = expectedStatus;
+    }
+
+    int expectedStatus() {
+        return expectedStatus;
+    }
+
+    // sequence numbers the requests of a run, it keeps created email addresses unique
+    abstract HttpRequest.Builder request(URI base, int rows, long sequence);
+
+    private static HttpRequest.Builder post(URI base, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve("/api/persons" + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static String person(String name, String email, int age) {
+        return """
+                {"name": "%s", "email": "%s", "age": %d}""".formatted(name, email, age);
+    }
+
+    // Both bounds inclusive
+    private static int random(int min, int max) {
+        return ThreadLocalRandom.current().nextInt(min, max + 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.example.lb3.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Polls the replica in the background so routing decisions never wait for it. A replica that is
+// unreachable or further behind than maxLag is taken out of rotation until it catches up.
+public class ReplicaLagMonitor implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // An idle primary sends no WAL, so a replica that has replayed everything it received is not lagging
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END""";
+
+    private final DataSource replica;
+    private final Duration maxLag;
+    private final ScheduledExecutorService executor;
+    private volatile boolean replicaUsable;
+    private volatile Duration lastLag;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, Duration checkInterval) {
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public Duration getLastLag() {
+        return lastLag;
+    }
+
+    void check() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet result = statement.executeQuery(LAG_QUERY)) {
+            result.next();
+            lastLag = Duration.ofMillis(Math.round(result.getDouble(1) * 1000));
+            usable = lastLag.compareTo(maxLag) <= 0;
+        } catch (Exception e) {
+            lastLag = null;
+            usable = false;
+        }
+        if (usable && !replicaUsable) {
+            log.info("Replica usable (lag {}), routing read-only transactions to it", lastLag);
+        } else if (!usable && replicaUsable) {
+            log.warn("Replica unusable (lag {}), routing read-only transactions to the primary", lastLag);
+        }
+        replicaUsable = usable;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.lb3.demo.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+// Recorded by SqlStatisticsSessionListener. The threshold is JFR's own, a recording sets it like for
+// the JDK events, in JMC or with -XX:StartFlightRecording:com.example.lb3.demo.SlowQuery#threshold=20ms
+@Name("com.example.lb3.demo.SlowQuery")
+@Label("Slow SQL Statement")
+@Category({"Demo", "SQL"})
+@Description("A JDBC statement or batch executed through Hibernate that took longer than the threshold")
+@Threshold("100 ms")
+class SlowQueryEvent extends Event {
+    @Label("SQL")
+    String sql;
+
+    @Label("Batch")
+    boolean batch;
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.lb3.demo.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Remembers the SQL of the statement the current thread prepared last, for the SlowQueryEvent of its
+// execution (hibernate.session_factory.statement_inspector in application.yml). The SQL is passed on
+// unchanged.
+public class SqlStatementInspector implements StatementInspector {
+    private static final ThreadLocal<String> LAST_SQL = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        LAST_SQL.set(sql);
+        return sql;
+    }
+
+    static String lastSql() {
+        return LAST_SQL.get();
+    }
+}
\ No newline at end of file
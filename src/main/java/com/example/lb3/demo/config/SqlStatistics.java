@@ -0,0 +1,54 @@
+package com.example.lb3.demo.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// JDBC work of the current thread between start() and stop(): executed statements (a JDBC batch
+// counts once, it is one round trip), entities Hibernate loaded from result sets and the time spent
+// executing. Fed by SqlStatisticsSessionListener and SqlStatisticsInterceptor, so only statements
+// that go through Hibernate are seen, JdbcTemplate (bulk import) is not.
+public final class SqlStatistics {
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long entitiesLoaded;
+    private long jdbcNanos;
+
+    private SqlStatistics() {
+    }
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static Optional<SqlStatistics> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public Duration getJdbcTime() {
+        return Duration.ofNanos(jdbcNanos);
+    }
+
+    void statementExecuted(long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+    }
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+}
\ No newline at end of file
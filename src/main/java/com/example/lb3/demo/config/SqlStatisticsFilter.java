@@ -0,0 +1,131 @@
+package com.example.lb3.demo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// Accounts the SQL of every request: X-SQL-* response headers with what had run when the response
+// was committed, and persons.sql.* metrics per endpoint (method and URI template, as for
+// http.server.requests, but outside its prefix so they get no percentile histograms) recorded once
+// the request is complete. Async responses such as /export run their SQL on another thread after
+// the filter has returned, they are not recorded.
+@Component
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String ENTITIES_HEADER = "X-SQL-Entities-Loaded";
+    public static final String TIME_HEADER = "X-SQL-Time-Millis";
+
+    private final MeterRegistry registry;
+    private final boolean responseHeaders;
+
+    public SqlStatisticsFilter(MeterRegistry registry,
+            @Value("${app.sql-statistics.response-headers:true}") boolean responseHeaders) {
+        this.registry = registry;
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            chain.doFilter(request, responseHeaders ? new HeaderWritingResponse(response, statistics) : response);
+            if (responseHeaders && !response.isCommitted()) {
+                writeHeaders(response, statistics);
+            }
+        } finally {
+            SqlStatistics.stop();
+            record(request, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("persons.sql.statements")
+                .description("JDBC statements and batches executed per request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("persons.sql.entities")
+                .description("Entities loaded from result sets per request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .record(statistics.getEntitiesLoaded());
+        Timer.builder("persons.sql.time")
+                .description("Time spent executing JDBC statements per request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .record(statistics.getJdbcTime());
+    }
+
+    private static void writeHeaders(HttpServletResponse response, SqlStatistics statistics) {
+        response.setHeader(STATEMENTS_HEADER, Long.toString(statistics.getStatements()));
+        response.setHeader(ENTITIES_HEADER, Long.toString(statistics.getEntitiesLoaded()));
+        response.setHeader(TIME_HEADER, Long.toString(statistics.getJdbcTime().toMillis()));
+    }
+
+    // Headers have to be set before the first byte of the body commits the response
+    private static class HeaderWritingResponse extends HttpServletResponseWrapper {
+        private final SqlStatistics statistics;
+        private boolean written;
+
+        HeaderWritingResponse(HttpServletResponse response, SqlStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeCommit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeCommit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            beforeCommit();
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            beforeCommit();
+            super.sendError(status);
+        }
+
+        private void beforeCommit() {
+            if (!written && !isCommitted()) {
+                written = true;
+                writeHeaders((HttpServletResponse) getResponse(), statistics);
+            }
+        }
+    }
+}
\ No newline at end of file
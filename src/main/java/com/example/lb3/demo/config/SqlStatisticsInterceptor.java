@@ -0,0 +1,15 @@
+package com.example.lb3.demo.config;
+
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+// Shared by all sessions (hibernate.session_factory.interceptor in application.yml), counts the
+// entities read from result sets. Projections and scalar queries load none.
+public class SqlStatisticsInterceptor implements Interceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        SqlStatistics.current().ifPresent(SqlStatistics::entityLoaded);
+        return false;
+    }
+}
\ No newline at end of file
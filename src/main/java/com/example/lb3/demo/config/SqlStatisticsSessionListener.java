@@ -0,0 +1,60 @@
+package com.example.lb3.demo.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Instantiated by Hibernate for every session (hibernate.session.events.auto in application.yml).
+// Also times each execution as a SlowQueryEvent, which is dropped unless a flight recording has it
+// enabled and the execution crossed its threshold.
+public class SqlStatisticsSessionListener extends BaseSessionEventListener {
+    private long statementStarted;
+    private long batchStarted;
+    private SlowQueryEvent slowQuery;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startSlowQuery();
+        statementStarted = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        long elapsed = System.nanoTime() - statementStarted;
+        SqlStatistics.current().ifPresent(statistics -> statistics.statementExecuted(elapsed));
+        endSlowQuery(false);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startSlowQuery();
+        batchStarted = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        long elapsed = System.nanoTime() - batchStarted;
+        SqlStatistics.current().ifPresent(statistics -> statistics.statementExecuted(elapsed));
+        endSlowQuery(true);
+    }
+
+    private void startSlowQuery() {
+        SlowQueryEvent event = new SlowQueryEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            slowQuery = event;
+        }
+    }
+
+    private void endSlowQuery(boolean batch) {
+        SlowQueryEvent event = slowQuery;
+        if (event == null) {
+            return;
+        }
+        slowQuery = null;
+        event.end();
+        if (event.shouldCommit()) {
+            event.sql = SqlStatementInspector.lastSql();
+            event.batch = batch;
+            event.commit();
+        }
+    }
+}
\ No newline at end of file
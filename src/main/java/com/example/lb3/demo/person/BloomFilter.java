@@ -0,0 +1,95 @@
+package com.example.lb3.demo.person;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Thread-safe Bloom filter over strings. Indexes are derived from one 64-bit hash by double hashing,
+// bits are set with CAS so concurrent adds never lose each other.
+class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final AtomicLong bitsSet = new AtomicLong();
+    private final AtomicLong insertions = new AtomicLong();
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing: " + expectedInsertions + ", " + falsePositiveRate);
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int wordCount = Math.toIntExact((Math.max(bits, Long.SIZE) + Long.SIZE - 1) / Long.SIZE);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = (long) wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * ln2));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        long step = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitSize);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long previous = words.getAndAccumulate(word, mask, (current, set) -> current | set);
+            if ((previous & mask) == 0) {
+                bitsSet.incrementAndGet();
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        long step = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The probability that an absent value hits only set bits, given how full the filter is now
+    double expectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.get() / bitSize, hashCount);
+    }
+
+    long bitSize() {
+        return bitSize;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    long insertions() {
+        return insertions.get();
+    }
+
+    // FNV-1a over the UTF-16 code units, finished with the MurmurHash3 64-bit mixer
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE1A85EC3L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.example.lb3.demo.person;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+// The oldest persons (age descending, then id) up to a fixed capacity, kept as a prefix of that order:
+// everyone not tracked ranks below the last tracked person. Writes keep the prefix exact, a delete
+// only shrinks it, and the next query that needs more than is left reloads it from the table.
+// Changes can be applied out of commit order, a save older than the last version applied, loaded or
+// skipped while unloaded for its id is ignored.
+@Component
+public class OldestPersonsTracker {
+    private static final Comparator<Person> OLDEST_FIRST =
+            Comparator.comparingInt(Person::getAge).reversed().thenComparing(Person::getId);
+    // Out of order changes come from concurrent commits, the most recent ones are enough to catch them
+    static final int RECENT_VERSIONS = 10_000;
+
+    private final PersonRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final TreeSet<Person> oldest = new TreeSet<>(OLDEST_FIRST);
+    private final Map<Long, Person> byId = new HashMap<>();
+    // Last known version of recently changed or loaded persons, tracked or not, Long.MAX_VALUE once deleted
+    private final Map<Long, Long> appliedVersions = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > RECENT_VERSIONS;
+        }
+    };
+    // Every person is tracked, anyone can join
+    private boolean exhaustive;
+    private boolean loaded;
+    private long reloads;
+
+    public OldestPersonsTracker(PersonRepository repository, PlatformTransactionManager transactionManager,
+            @Value("${app.persons.oldest.capacity:1000}") int capacity) {
+        this.repository = repository;
+        // Not read-only: a reload from a lagging replica would drop changes that were already applied
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+    }
+
+    public synchronized List<Person> top(int count) {
+        if (count > capacity) {
+            throw new IllegalArgumentException("At most " + capacity + " oldest persons are tracked");
+        }
+        if (!loaded || (oldest.size() < count && !exhaustive)) {
+            reload();
+        }
+        return oldest.stream().limit(count).map(OldestPersonsTracker::copy).toList();
+    }
+
+    // Everyone of the maximum age, empty when they do not all fit into the tracker
+    public synchronized Optional<List<Person>> oldest() {
+        if (!loaded || (oldest.isEmpty() && !exhaustive)) {
+            reload();
+        }
+        if (oldest.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        int maxAge = oldest.first().getAge();
+        if (!exhaustive && oldest.last().getAge() == maxAge) {
+            // A full tracker of one age stays full after a reload
+            if (oldest.size() == capacity) {
+                return Optional.empty();
+            }
+            reload();
+            if (!exhaustive && oldest.last().getAge() == maxAge) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(oldest.stream()
+                .takeWhile(person -> person.getAge() == maxAge)
+                .map(OldestPersonsTracker::copy)
+                .toList());
+    }
+
+    public synchronized long getReloads() {
+        return reloads;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPersonsChanged(PersonsChangedEvent event) {
+        if (event.reloadRequired()) {
+            loaded = false;
+            return;
+        }
+        if (!loaded) {
+            // The next reload reads these changes from the table, a late older save must not undo them
+            event.removedIds().forEach(id -> applied(id, Long.MAX_VALUE));
+            event.saved().forEach(person -> applied(person.getId(), person.getVersion()));
+            return;
+        }
+        event.removedIds().forEach(id -> {
+            applied(id, Long.MAX_VALUE);
+            remove(id);
+        });
+        event.saved().forEach(person -> put(copy(person)));
+    }
+
+    private void put(Person person) {
+        Person tracked = byId.get(person.getId());
+        Long applied = appliedVersions.get(person.getId());
+        if ((tracked != null && tracked.getVersion() > person.getVersion())
+                || (applied != null && applied > person.getVersion())) {
+            return;
+        }
+        applied(person.getId(), person.getVersion());
+        Person boundary = oldest.isEmpty() ? null : oldest.last();
+        remove(person.getId());
+        if (exhaustive || (boundary != null && OLDEST_FIRST.compare(person, boundary) <= 0)) {
+            oldest.add(person);
+            byId.put(person.getId(), person);
+            if (oldest.size() > capacity) {
+                byId.remove(oldest.pollLast().getId());
+                exhaustive = false;
+            }
+        }
+    }
+
+    // Re-inserted, so the entry counts as recent again. Versions only grow.
+    private void applied(Long id, long version) {
+        Long previous = appliedVersions.remove(id);
+        appliedVersions.put(id, previous == null ? version : Math.max(previous, version));
+    }
+
+    private void remove(Long id) {
+        Person previous = byId.remove(id);
+        if (previous != null) {
+            oldest.remove(previous);
+        }
+    }
+
+    private void reload() {
+        List<Person> people = transactionTemplate.execute(status ->
+                repository.findByOrderByAgeDescIdAsc(Limit.of(capacity)).stream().map(OldestPersonsTracker::copy).toList());
+        oldest.clear();
+        byId.clear();
+        people.forEach(person -> {
+            oldest.add(person);
+            byId.put(person.getId(), person);
+            applied(person.getId(), person.getVersion());
+        });
+        exhaustive = people.size() < capacity;
+        loaded = true;
+        reloads++;
+    }
+
+    private static Person copy(Person person) {
+        return Person.builder()
+                .id(person.getId())
+                .name(person.getName())
+                .email(person.getEmail())
+                .age(person.getAge())
+                .version(person.getVersion())
+                .build();
+    }
+}
\ No newline at end of file
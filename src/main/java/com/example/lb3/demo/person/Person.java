@@ -1,10 +1,15 @@
 package com.example.lb3.demo.person;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -15,13 +20,23 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "person_age_name_id_idx", columnList = "age, name, id"),
+        // Keyset pages ordered by age, and by id within a name
+        @Index(name = "person_age_id_idx", columnList = "age, id"),
+        @Index(name = "person_name_id_idx", columnList = "name, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Person {
+    // Every person_seq value reserves the block of ids (value - ID_ALLOCATION_SIZE, value]
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @SequenceGenerator(name = "person_seq", sequenceName = "person_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Size(max = 255, message = "Name must not exceed 255 characters")
@@ -34,4 +49,11 @@ public class Person {
 
     @Min(value = 0, message = "Age must be non-negative")
     private int age;
+
+    // Incremented by every update. Not part of the JSON body, clients get it as the ETag and send it
+    // back in If-Match for conditional updates
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    @JsonIgnore
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.example.lb3.demo.person;
+
+public record PersonAge(long id, int age, long version) {
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.example.lb3.demo.person;
+
+public interface PersonAgeCount {
+    int getAge();
+    long getCount();
+}
\ No newline at end of file
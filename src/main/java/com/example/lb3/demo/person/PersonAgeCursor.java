@@ -0,0 +1,33 @@
+package com.example.lb3.demo.person;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset position for endpoints ordered by age: the (age, id) of the last row of a page
+public record PersonAgeCursor(int age, long id) {
+    private static final char SEPARATOR = ':';
+
+    public static PersonAgeCursor of(Person person) {
+        return new PersonAgeCursor(person.getAge(), person.getId());
+    }
+
+    public String encode() {
+        String raw = age + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PersonAgeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 1) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            return new PersonAgeCursor(Integer.parseInt(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.example.lb3.demo.person;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+// Ids of every person grouped by age, each group a sorted long[] that is replaced, never modified,
+// so readers need no locks. Ages are a small domain: counts and the histogram are sums over a few
+// array lengths, answered without a query. The ids tell which group a changed person leaves. Changes
+// are applied after commit, possibly out of commit order: every id keeps its version next to it, a
+// deleted id is remembered for a while, and a save older than either is ignored.
+@Component
+public class PersonAgeIndex implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PersonAgeIndex.class);
+    private static final Group EMPTY_GROUP = new Group(new long[0], new long[0]);
+    // Out of order changes come from concurrent commits, the most recent deletes are enough to catch them
+    static final int RECENT_DELETES = 10_000;
+
+    private final PersonRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "person-age-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    // versions[i] belongs to ids[i]
+    private record Group(long[] ids, long[] versions) {
+    }
+
+    private volatile ConcurrentSkipListMap<Integer, Group> idsByAge = new ConcurrentSkipListMap<>();
+    // Long.MAX_VALUE for recently deleted ids, so a late save cannot put them back. Guarded by writeLock.
+    private final Map<Long, Long> removedVersions = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > RECENT_DELETES;
+        }
+    };
+    private volatile boolean ready;
+    // Changes that arrive while a rebuild scans the table, replayed onto its result
+    private List<PersonsChangedEvent> replay;
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile long lastBuildMillis;
+
+    public PersonAgeIndex(PersonRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        // Not read-only: a scan on a lagging replica could miss changes that are not replayed
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Both bounds inclusive, empty while the index is loading
+    public OptionalLong count(int minAge, int maxAge) {
+        if (!ready) {
+            return OptionalLong.empty();
+        }
+        long count = 0;
+        for (Group group : range(minAge, maxAge).values()) {
+            count += group.ids().length;
+        }
+        return OptionalLong.of(count);
+    }
+
+    // Number of persons per age, both bounds inclusive
+    public Optional<SortedMap<Integer, Long>> histogram(int minAge, int maxAge) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        SortedMap<Integer, Long> histogram = new TreeMap<>();
+        range(minAge, maxAge).forEach((age, group) -> histogram.put(age, (long) group.ids().length));
+        return Optional.of(histogram);
+    }
+
+    public PersonAgeIndexStats stats() {
+        Map<Integer, Group> current = idsByAge;
+        long ids = current.values().stream().mapToLong(group -> group.ids().length).sum();
+        // Ids and versions plus array headers, group and map nodes of each age
+        long bytes = ids * 2 * Long.BYTES + current.size() * 112L;
+        return new PersonAgeIndexStats(ready, current.size(), ids, bytes, rebuilds.get(), lastBuildMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPersonsChanged(PersonsChangedEvent event) {
+        if (event.reloadRequired()) {
+            scheduleRebuild();
+            return;
+        }
+        synchronized (writeLock) {
+            apply(idsByAge, event);
+            if (replay != null) {
+                replay.add(event);
+            }
+        }
+    }
+
+    public synchronized PersonAgeIndexStats rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (writeLock) {
+            replay = new ArrayList<>();
+        }
+        ConcurrentSkipListMap<Integer, Group> next = new ConcurrentSkipListMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(transaction -> {
+                try (Stream<PersonAge> ages = repository.streamAllAges()) {
+                    collect(ages, next);
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                replay = null;
+            }
+            throw e;
+        }
+        synchronized (writeLock) {
+            replay.forEach(event -> apply(next, event));
+            replay = null;
+            idsByAge = next;
+            ready = true;
+        }
+        rebuilds.incrementAndGet();
+        lastBuildMillis = System.currentTimeMillis() - started;
+        log.info("Built age index over {} ids in {} ms", stats().ids(), lastBuildMillis);
+        return stats();
+    }
+
+    private NavigableMap<Integer, Group> range(int minAge, int maxAge) {
+        if (minAge > maxAge) {
+            return new ConcurrentSkipListMap<>();
+        }
+        return idsByAge.subMap(minAge, true, maxAge, true);
+    }
+
+    // The scan is ordered by age and id, so every group is filled in order
+    private static void collect(Stream<PersonAge> ages, Map<Integer, Group> target) {
+        long[] ids = new long[1024];
+        long[] versions = new long[1024];
+        int size = 0;
+        Integer age = null;
+        for (PersonAge row : (Iterable<PersonAge>) ages::iterator) {
+            if (age != null && age != row.age()) {
+                target.put(age, new Group(Arrays.copyOf(ids, size), Arrays.copyOf(versions, size)));
+                size = 0;
+            }
+            age = row.age();
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                versions = Arrays.copyOf(versions, size * 2);
+            }
+            ids[size] = row.id();
+            versions[size++] = row.version();
+        }
+        if (age != null) {
+            target.put(age, new Group(Arrays.copyOf(ids, size), Arrays.copyOf(versions, size)));
+        }
+    }
+
+    // Finds where every changed id is with one lookup per group, then rewrites each affected group
+    // once, however many of its ids the event changes
+    private void apply(ConcurrentSkipListMap<Integer, Group> target, PersonsChangedEvent event) {
+        Map<Long, Person> saved = new HashMap<>();
+        for (Person person : event.saved()) {
+            saved.merge(person.getId(), person, (first, second) -> first.getVersion() > second.getVersion() ? first : second);
+        }
+        event.removedIds().forEach(id -> {
+            saved.remove(id);
+            removedVersions.put(id, Long.MAX_VALUE);
+        });
+        long[] changed = LongStream.concat(saved.keySet().stream().mapToLong(Long::longValue),
+                event.removedIds().stream().mapToLong(Long::longValue)).sorted().distinct().toArray();
+        if (changed.length == 0) {
+            return;
+        }
+
+        record Location(int age, long version) {
+        }
+        Map<Long, Location> locations = new HashMap<>();
+        target.forEach((age, group) -> {
+            for (long id : changed) {
+                int position = Arrays.binarySearch(group.ids(), id);
+                if (position >= 0) {
+                    locations.put(id, new Location(age, group.versions()[position]));
+                }
+            }
+        });
+
+        Map<Integer, List<Long>> removals = new HashMap<>();
+        Map<Integer, List<Person>> insertions = new HashMap<>();
+        for (long id : changed) {
+            Location location = locations.get(id);
+            Person person = saved.get(id);
+            if (person != null && ((location != null && location.version() > person.getVersion())
+                    || removedVersions.getOrDefault(id, Long.MIN_VALUE) > person.getVersion())) {
+                continue;
+            }
+            if (location != null && (person == null || location.age() != person.getAge())) {
+                removals.computeIfAbsent(location.age(), age -> new ArrayList<>()).add(id);
+            }
+            if (person != null) {
+                insertions.computeIfAbsent(person.getAge(), age -> new ArrayList<>()).add(person);
+            }
+        }
+
+        Set<Integer> ages = new HashSet<>(removals.keySet());
+        ages.addAll(insertions.keySet());
+        for (Integer age : ages) {
+            long[] removed = removals.getOrDefault(age, List.of()).stream().mapToLong(Long::longValue).toArray();
+            List<Person> inserted = insertions.getOrDefault(age, List.of());
+            target.compute(age, (key, group) -> {
+                Group merged = merge(group == null ? EMPTY_GROUP : group, removed, inserted);
+                return merged.ids().length == 0 ? null : merged;
+            });
+        }
+    }
+
+    // One pass over a group: drops the removed ids, adds the inserted ones or updates their version.
+    // Both lists are sorted by id.
+    private static Group merge(Group group, long[] removed, List<Person> inserted) {
+        long[] ids = group.ids();
+        long[] versions = group.versions();
+        long[] mergedIds = new long[ids.length + inserted.size()];
+        long[] mergedVersions = new long[mergedIds.length];
+        int size = 0;
+        int next = 0;
+        int nextRemoved = 0;
+        for (int i = 0; i < ids.length || next < inserted.size(); ) {
+            if (next == inserted.size() || (i < ids.length && ids[i] < inserted.get(next).getId())) {
+                while (nextRemoved < removed.length && removed[nextRemoved] < ids[i]) {
+                    nextRemoved++;
+                }
+                if (nextRemoved == removed.length || removed[nextRemoved] != ids[i]) {
+                    mergedIds[size] = ids[i];
+                    mergedVersions[size++] = versions[i];
+                }
+                i++;
+            } else {
+                Person person = inserted.get(next++);
+                if (i < ids.length && ids[i] == person.getId()) {
+                    i++;
+                }
+                mergedIds[size] = person.getId();
+                mergedVersions[size++] = person.getVersion();
+            }
+        }
+        return new Group(Arrays.copyOf(mergedIds, size), Arrays.copyOf(mergedVersions, size));
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            rebuildScheduled.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Building the age index failed", e);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.example.lb3.demo.person;
+
+public record PersonAgeIndexStats(boolean ready, int ages, long ids, long estimatedBytes, long rebuildCount,
+        long lastBuildMillis) {
+}
\ No newline at end of file
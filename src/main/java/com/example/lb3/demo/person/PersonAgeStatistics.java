@@ -0,0 +1,37 @@
+package com.example.lb3.demo.person;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+// Min, max, mean and nearest-rank percentiles derived from the count of persons per age.
+// All but the count are null when no person matched.
+public record PersonAgeStatistics(long count, Integer min, Integer max, Double mean,
+        Map<String, Integer> percentiles, SortedMap<Integer, Long> histogram) {
+    private static final int[] PERCENTILES = {25, 50, 75, 90, 95, 99};
+
+    public static PersonAgeStatistics of(SortedMap<Integer, Long> histogram) {
+        long count = histogram.values().stream().mapToLong(Long::longValue).sum();
+        if (count == 0) {
+            return new PersonAgeStatistics(0, null, null, null, Map.of(), histogram);
+        }
+        double sum = 0;
+        for (Map.Entry<Integer, Long> entry : histogram.entrySet()) {
+            sum += (double) entry.getKey() * entry.getValue();
+        }
+        Map<String, Integer> percentiles = new LinkedHashMap<>();
+        for (int percentile : PERCENTILES) {
+            long rank = (long) Math.ceil(percentile / 100.0 * count);
+            long seen = 0;
+            for (Map.Entry<Integer, Long> entry : histogram.entrySet()) {
+                seen += entry.getValue();
+                if (seen >= rank) {
+                    percentiles.put("p" + percentile, entry.getKey());
+                    break;
+                }
+            }
+        }
+        return new PersonAgeStatistics(count, histogram.firstKey(), histogram.lastKey(), sum / count,
+                percentiles, histogram);
+    }
+}
\ No newline at end of file
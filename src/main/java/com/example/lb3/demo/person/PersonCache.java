@@ -0,0 +1,180 @@
+package com.example.lb3.demo.person;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Bounded W-TinyLFU cache of persons by id with a secondary email -> id index. Entries are copies, so
+// callers can never modify what other requests are served. Writes only update entries that are
+// already cached and never replace a newer version with an older one.
+@Component
+public class PersonCache {
+    private final Cache<Long, Person> byId;
+    private final ConcurrentMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, lets a read that raced with a delete drop what it just cached
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder emailHits = new LongAdder();
+    private final LongAdder emailMisses = new LongAdder();
+
+    public PersonCache(@Value("${app.persons.cache.maximum-size:100000}") long maximumSize,
+            @Value("${app.persons.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .evictionListener((Long id, Person person, RemovalCause cause) -> removeEmail(person, id))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Person> get(Long id, Function<Long, Optional<Person>> loader) {
+        Person cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+        long generation = invalidations.get();
+        Optional<Person> loaded = loader.apply(id);
+        loaded.ifPresent(person -> cache(person, generation));
+        return loaded;
+    }
+
+    public Optional<Person> getByEmail(String email, Supplier<Optional<Person>> loader) {
+        Long id = idsByEmail.get(email);
+        Person cached = id == null ? null : byId.getIfPresent(id);
+        if (cached != null && email.equals(cached.getEmail())) {
+            emailHits.increment();
+            return Optional.of(copy(cached));
+        }
+        emailMisses.increment();
+        long generation = invalidations.get();
+        Optional<Person> loaded = loader.get();
+        loaded.ifPresent(person -> cache(person, generation));
+        return loaded;
+    }
+
+    // Batch forms of get and getByEmail, whatever is not cached is loaded with a single loader call.
+    // Absent persons are missing from the result.
+    public Map<Long, Person> getAll(Collection<Long> ids, Function<List<Long>, List<Person>> loader) {
+        Map<Long, Person> found = new HashMap<>();
+        byId.getAllPresent(ids).forEach((id, cached) -> found.put(id, copy(cached)));
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            long generation = invalidations.get();
+            for (Person person : loader.apply(missing)) {
+                cache(person, generation);
+                found.put(person.getId(), person);
+            }
+        }
+        return found;
+    }
+
+    public Map<String, Person> getAllByEmail(Collection<String> emails, Function<List<String>, List<Person>> loader) {
+        Map<String, Person> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String email : emails) {
+            Long id = idsByEmail.get(email);
+            Person cached = id == null ? null : byId.getIfPresent(id);
+            if (cached != null && email.equals(cached.getEmail())) {
+                found.put(email, copy(cached));
+            } else {
+                missing.add(email);
+            }
+        }
+        emailHits.add(found.size());
+        emailMisses.add(missing.size());
+        if (!missing.isEmpty()) {
+            long generation = invalidations.get();
+            for (Person person : loader.apply(missing)) {
+                cache(person, generation);
+                found.put(person.getEmail(), person);
+            }
+        }
+        return found;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPersonsChanged(PersonsChangedEvent event) {
+        invalidations.incrementAndGet();
+        if (event.reloadRequired()) {
+            byId.invalidateAll();
+            idsByEmail.clear();
+            return;
+        }
+        event.removedIds().forEach(this::evict);
+        for (Person person : event.saved()) {
+            Person updated = copy(person);
+            byId.asMap().computeIfPresent(person.getId(), (id, cached) -> {
+                if (cached.getVersion() > updated.getVersion()) {
+                    return cached;
+                }
+                removeEmail(cached, id);
+                addEmail(updated);
+                return updated;
+            });
+        }
+    }
+
+    public PersonCacheStats stats() {
+        CacheStats stats = byId.stats();
+        return new PersonCacheStats(byId.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), idsByEmail.size(), emailHits.sum(), emailMisses.sum());
+    }
+
+    private void cache(Person person, long generation) {
+        Person copy = copy(person);
+        Person current = byId.asMap().merge(copy.getId(), copy,
+                (cached, loaded) -> cached.getVersion() > loaded.getVersion() ? cached : loaded);
+        if (current == copy) {
+            addEmail(copy);
+            if (invalidations.get() != generation && byId.asMap().remove(copy.getId(), copy)) {
+                removeEmail(copy, copy.getId());
+            }
+        }
+    }
+
+    private void evict(Long id) {
+        Person removed = byId.asMap().remove(id);
+        if (removed != null) {
+            removeEmail(removed, id);
+        }
+    }
+
+    private void addEmail(Person person) {
+        if (person.getEmail() != null) {
+            idsByEmail.put(person.getEmail(), person.getId());
+        }
+    }
+
+    private void removeEmail(Person person, Long id) {
+        if (person != null && person.getEmail() != null) {
+            idsByEmail.remove(person.getEmail(), id);
+        }
+    }
+
+    private static Person copy(Person person) {
+        return Person.builder()
+                .id(person.getId())
+                .name(person.getName())
+                .email(person.getEmail())
+                .age(person.getAge())
+                .version(person.getVersion())
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.example.lb3.demo.person;
+
+public record PersonCacheStats(long size, long hitCount, long missCount, double hitRate, long evictionCount,
+        long emailIndexSize, long emailHitCount, long emailMissCount) {
+}
\ No newline at end of file
@@ -1,57 +1,130 @@
 package com.example.lb3.demo.person;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 
 @RestController
 @RequestMapping("/api/persons")
 public class PersonController {
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+    private static final Sort BY_ID = Sort.by("id");
+    private static final Sort BY_AGE = Sort.by("age", "id");
+    private static final Sort BY_AGE_DESC = Sort.by(Sort.Direction.DESC, "age").and(BY_ID);
+
     private final PersonService service;
+    private final PersonImportService importService;
+    private final ObjectMapper objectMapper;
 
-    public PersonController(PersonService service) {
+    public PersonController(PersonService service, PersonImportService importService,
+            ObjectMapper objectMapper) {
         this.service = service;
+        this.importService = importService;
+        this.objectMapper = objectMapper;
     }
 
-    // Basic CRUD Operations
+    // Basic CRUD Operations. List endpoints take ?fields=name,email to read and return only those
+    // columns (plus the id), see PersonFields. They return pages of at most MAX_PAGE_SIZE rows with a
+    // Link to the next page.
     @GetMapping
-    public List<Person> getAllPersons() {
-        return service.getAllPersons();
+    public ResponseEntity<List<?>> getPersons(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (fields != null) {
+            List<Map<String, Object>> page = service.findFields(fields, PersonSpecifications.idGreaterThan(after),
+                    BY_ID, limit);
+            return withNextLink(page, limit, "after", page.isEmpty() ? null : page.get(page.size() - 1).get("id"));
+        }
+        List<Person> page = service.getPersons(after, limit);
+        return withNextLink(page, limit, "after", page.isEmpty() ? null : page.get(page.size() - 1).getId());
+    }
+
+    // Filters (name, nameContains, email, emailContains, minAge, maxAge) are combined with AND,
+    // sort is a property name, prefixed with '-' for descending
+    @GetMapping("/query")
+    public ResponseEntity<List<?>> query(PersonQuery query,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        try {
+            Sort order = PersonQuery.sort(sort);
+            return ResponseEntity.ok(fields == null
+                    ? service.query(query, order, limit)
+                    : service.query(query, order, limit, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Person> getPersonById(@PathVariable Long id) {
         return service.getPersonById(id)
-                .map(ResponseEntity::ok)
+                .map(person -> ResponseEntity.ok().eTag(eTag(person)).body(person))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
     public ResponseEntity<Person> createPerson(@Valid @RequestBody Person person) {
-        if (service.doesEmailExist(person.getEmail())) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
-        }
-        if (!service.isValidForCreation(person)) {
+        if (person.getId() != null || person.getEmail() == null) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(service.createPerson(person));
+        try {
+            Person created = service.createPerson(person);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(created)).body(created);
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Person> updatePerson(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody Person person) {
-        if (!service.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
         person.setId(id);
-        if (!service.isValidForUpdate(person)) {
+        if (person.getEmail() == null) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(service.updatePerson(person));
+        List<Long> expectedVersions;
+        try {
+            expectedVersions = parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Person updated = service.updatePerson(person, expectedVersions);
+            return ResponseEntity.ok().eTag(eTag(updated)).body(updated);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -66,8 +139,11 @@ public class PersonController {
 
     // Search by single field
     @GetMapping("/search/name/{name}")
-    public List<Person> findByName(@PathVariable String name) {
-        return service.findByName(name);
+    public ResponseEntity<List<?>> findByName(@PathVariable String name,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageById(PersonSpecifications.nameEquals(name), after, limit, fields);
     }
 
     @GetMapping("/search/email/{email}")
@@ -78,64 +154,118 @@ public class PersonController {
     }
 
     @GetMapping("/search/age/{age}")
-    public List<Person> findByAge(@PathVariable int age) {
-        return service.findByAge(age);
+    public ResponseEntity<List<?>> findByAge(@PathVariable int age,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageById(PersonSpecifications.ageBetween(age, age), after, limit, fields);
     }
 
     // Search by containing pattern
     @GetMapping("/search/name/containing")
-    public List<Person> searchByNameContaining(@RequestParam String keyword) {
-        return service.searchByNameContaining(keyword);
+    public ResponseEntity<List<?>> searchByNameContaining(@RequestParam String keyword,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageById(PersonSpecifications.nameContainsIgnoreCase(keyword), after, limit, fields);
     }
 
     @GetMapping("/search/email/containing")
-    public List<Person> searchByEmailContaining(@RequestParam String keyword) {
-        return service.searchByEmailContaining(keyword);
+    public ResponseEntity<List<?>> searchByEmailContaining(@RequestParam String keyword,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageById(PersonSpecifications.emailContainsIgnoreCase(keyword), after, limit, fields);
     }
 
     // Multiple field searches
     @GetMapping("/search/nameAndAge")
-    public List<Person> findByNameAndAge(@RequestParam String name,
-            @RequestParam int age) {
-        return service.findByNameAndAge(name, age);
+    public ResponseEntity<List<?>> findByNameAndAge(@RequestParam String name,
+            @RequestParam int age,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageById(PersonSpecifications.nameEquals(name).and(PersonSpecifications.ageBetween(age, age)),
+                after, limit, fields);
     }
 
     @GetMapping("/search/nameOrEmail")
-    public List<Person> findByNameOrEmail(@RequestParam String name,
-            @RequestParam String email) {
-        return service.findByNameOrEmail(name, email);
+    public ResponseEntity<List<?>> findByNameOrEmail(@RequestParam String name,
+            @RequestParam String email,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageById(PersonSpecifications.nameEquals(name).or(PersonSpecifications.emailEquals(email)),
+                after, limit, fields);
     }
 
     // Ordered searches
     @GetMapping("/search/age/orderByName/{age}")
-    public List<Person> findByAgeOrderedByName(@PathVariable int age) {
-        return service.findByAgeOrderedByName(age);
+    public ResponseEntity<List<?>> findByAgeOrderedByName(@PathVariable int age,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        PersonCursor after;
+        try {
+            after = cursor == null ? null : PersonCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (fields != null) {
+            Specification<Person> where = PersonSpecifications.ageBetween(age, age);
+            if (after != null) {
+                where = where.and(PersonSpecifications.nameAndIdAfter(after.name(), after.id()));
+            }
+            // The cursor is built from the name of the last row
+            List<Map<String, Object>> page = service.findFields(fields.with(PersonFields.Field.NAME), where,
+                    Sort.by("name", "id"), limit);
+            return withNextLink(page, limit, "cursor", page.isEmpty() ? null : new PersonCursor(
+                    (String) page.get(page.size() - 1).get("name"), (Long) page.get(page.size() - 1).get("id")).encode());
+        }
+        List<Person> page = service.findByAgeOrderedByName(age, after, limit);
+        return withNextLink(page, limit, "cursor",
+                page.isEmpty() ? null : PersonCursor.of(page.get(page.size() - 1)).encode());
     }
 
     @GetMapping("/search/name/orderByAge/{name}")
-    public List<Person> findByNameOrderedByAgeDesc(@PathVariable String name) {
-        return service.findByNameOrderedByAgeDesc(name);
+    public ResponseEntity<List<?>> findByNameOrderedByAgeDesc(@PathVariable String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageByAge(PersonSpecifications.nameEquals(name), true, cursor, limit, fields);
     }
 
     // Age comparison searches
     @GetMapping("/search/age/older/{age}")
-    public List<Person> findPeopleOlderThan(@PathVariable int age) {
-        return service.findPeopleOlderThan(age);
+    public ResponseEntity<List<?>> findPeopleOlderThan(@PathVariable int age,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageByAge(PersonSpecifications.ageGreaterThan(age), false, cursor, limit, fields);
     }
 
     @GetMapping("/search/age/younger/{age}")
-    public List<Person> findPeopleYoungerThan(@PathVariable int age) {
-        return service.findPeopleYoungerThan(age);
+    public ResponseEntity<List<?>> findPeopleYoungerThan(@PathVariable int age,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageByAge(PersonSpecifications.ageLessThan(age), false, cursor, limit, fields);
     }
 
     @GetMapping("/search/age/range")
-    public ResponseEntity<List<Person>> findPeopleInAgeRange(
+    public ResponseEntity<List<?>> findPeopleInAgeRange(
             @RequestParam int startAge,
-            @RequestParam int endAge) {
+            @RequestParam int endAge,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
         if (startAge > endAge) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(service.findPeopleInAgeRange(startAge, endAge));
+        return pageByAge(PersonSpecifications.ageBetween(startAge, endAge), false, cursor, limit, fields);
     }
 
     // Existence checks
@@ -161,40 +291,69 @@ public class PersonController {
         return service.countPeopleWithNameContaining(namePattern);
     }
 
+    // Age histogram and summary in one request, name and email filter like /search/*/containing
+    @GetMapping("/stats/age")
+    public PersonAgeStatistics getAgeStatistics(@RequestParam(required = false) String name,
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "0") int minAge,
+            @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int maxAge) {
+        return service.getAgeStatistics(name, email, minAge, maxAge);
+    }
+
     // Additional delete operations
     @DeleteMapping("/email/{email}")
-    public ResponseEntity<Void> deleteByEmail(@PathVariable String email) {
-        service.deleteByEmail(email);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Integer> deleteByEmail(@PathVariable String email) {
+        return ResponseEntity.ok(service.deleteByEmail(email));
     }
 
     @DeleteMapping("/nameAndAge")
-    public ResponseEntity<Void> deleteByNameAndAge(@RequestParam String name,
+    public ResponseEntity<Integer> deleteByNameAndAge(@RequestParam String name,
             @RequestParam int age) {
-        service.deleteByNameAndAge(name, age);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(service.deleteByNameAndAge(name, age));
     }
 
     // Custom queries
     @GetMapping("/search/keyword")
-    public List<Person> searchByNameOrEmailKeyword(@RequestParam String keyword) {
-        return service.searchByNameOrEmailKeyword(keyword);
+    public ResponseEntity<List<?>> searchByNameOrEmailKeyword(@RequestParam String keyword,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        return pageById(PersonSpecifications.nameContainsIgnoreCase(keyword)
+                .or(PersonSpecifications.emailContainsIgnoreCase(keyword)), after, limit, fields);
+    }
+
+    // Ranked pages, the oldest persons and the top 5 are small or served from memory, their fields are
+    // selected from the entities
+    @GetMapping("/search/keyword/ranked")
+    public ResponseEntity<List<?>> searchRanked(@RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) PersonFields fields) {
+        try {
+            PersonRankCursor after = cursor == null ? null : PersonRankCursor.decode(cursor);
+            List<PersonSearchHit> page = service.searchRanked(keyword, after, limit);
+            return withNextLink(select(page.stream().map(PersonSearchHit::toPerson).toList(), fields), limit, "cursor",
+                    page.isEmpty() ? null : PersonRankCursor.of(page.get(page.size() - 1)).encode());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/oldest")
-    public List<Person> findOldestPeople() {
-        return service.findOldestPeople();
+    public List<?> findOldestPeople(@RequestParam(required = false) PersonFields fields) {
+        return select(service.findOldestPeople(), fields);
     }
 
     // Limited results
     @GetMapping("/oldest/top3")
-    public List<Person> findTop3OldestPeople() {
-        return service.findTop3OldestPeople();
+    public List<?> findTop3OldestPeople(@RequestParam(required = false) PersonFields fields) {
+        return select(service.findTop3OldestPeople(), fields);
     }
 
     @GetMapping("/search/name/top5")
-    public List<Person> findFirst5ByNameContaining(@RequestParam String name) {
-        return service.findFirst5ByNameContainingOrderedByAge(name);
+    public List<?> findFirst5ByNameContaining(@RequestParam String name,
+            @RequestParam(required = false) PersonFields fields) {
+        return select(service.findFirst5ByNameContainingOrderedByAge(name), fields);
     }
 
     // Batch operations
@@ -204,13 +363,35 @@ public class PersonController {
                 .body(service.saveAll(people));
     }
 
+    // Bulk import, the body is streamed into PostgreSQL and never held in memory
+    @PostMapping(value = "/import", consumes = CSV)
+    public PersonImportResult importPersonsCsv(InputStream body) {
+        return importService.importPersons(body, PersonImportService.Format.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public PersonImportResult importPersonsNdjson(InputStream body) {
+        return importService.importPersons(body, PersonImportService.Format.NDJSON);
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<PersonLookupResult> lookup(@RequestBody PersonLookupRequest request) {
+        try {
+            return ResponseEntity.ok(service.lookup(request.ids(), request.emails()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("/batch")
-    public ResponseEntity<Void> deletePersons(@RequestBody List<Person> people) {
+    public ResponseEntity<List<Long>> deletePersons(@RequestBody List<Person> people) {
         try {
             service.deleteAll(people);
             return ResponseEntity.ok().build();
-        } catch (EntityNotFoundException e) {
-            return ResponseEntity.notFound().build();
+        } catch (PersonsNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMissingIds());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 
@@ -220,9 +401,153 @@ public class PersonController {
         return service.getTotalCount();
     }
 
+    @GetMapping("/cache/stats")
+    public PersonCacheStats getCacheStats() {
+        return service.getCacheStats();
+    }
+
+    @GetMapping("/email-filter/stats")
+    public PersonEmailFilterStats getEmailFilterStats() {
+        return service.getEmailFilterStats();
+    }
+
+    @PostMapping("/email-filter/rebuild")
+    public PersonEmailFilterStats rebuildEmailFilter() {
+        return service.rebuildEmailFilter();
+    }
+
+    // Prefix matches on any word of the name, served from memory
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<PersonNameSuggestion>> autocomplete(@RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return service.suggestNames(prefix, limit)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    @GetMapping("/autocomplete/stats")
+    public PersonNameIndexStats getNameIndexStats() {
+        return service.getNameIndexStats();
+    }
+
+    @GetMapping("/age-index/stats")
+    public PersonAgeIndexStats getAgeIndexStats() {
+        return service.getAgeIndexStats();
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportPersons() {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                service.exportAll(person -> {
+                    try {
+                        writer.writeValue(generator, person);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
     @DeleteMapping("/all")
-    public ResponseEntity<Void> deleteAllPersons() {
-        service.deleteAllPersons();
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Long> deleteAllPersons() {
+        return ResponseEntity.ok(service.deleteAllPersons());
+    }
+
+    private static List<?> select(List<Person> people, PersonFields fields) {
+        return fields == null ? people : people.stream().map(fields::select).toList();
+    }
+
+    private static String eTag(Person person) {
+        return "\"" + person.getVersion() + "\"";
+    }
+
+    // Versions listed in an If-Match header, null for a missing header or "*" since any version matches.
+    // If-Match uses the strong comparison, a weak tag never matches and only weak tags leave no version.
+    static List<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String element : ifMatch.split(",")) {
+            String tag = element.trim();
+            if (tag.isEmpty() || tag.startsWith("W/")) {
+                continue;
+            }
+            if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                throw new IllegalArgumentException("Malformed entity tag: " + tag);
+            }
+            versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+        }
+        return versions;
+    }
+
+    // Pages ordered by id, after is the id of the last row of the previous page
+    private ResponseEntity<List<?>> pageById(Specification<Person> where, long after, int limit,
+            PersonFields fields) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        where = where.and(PersonSpecifications.idGreaterThan(after));
+        if (fields != null) {
+            List<Map<String, Object>> page = service.findFields(fields, where, BY_ID, limit);
+            return withNextLink(page, limit, "after", page.isEmpty() ? null : page.get(page.size() - 1).get("id"));
+        }
+        List<Person> page = service.findPage(where, BY_ID, limit);
+        return withNextLink(page, limit, "after", page.isEmpty() ? null : page.get(page.size() - 1).getId());
+    }
+
+    // Pages ordered by age and id, the cursor is the (age, id) of the last row of the previous page
+    private ResponseEntity<List<?>> pageByAge(Specification<Person> where, boolean descending, String cursor,
+            int limit, PersonFields fields) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        PersonAgeCursor after;
+        try {
+            after = cursor == null ? null : PersonAgeCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (after != null) {
+            where = where.and(descending
+                    ? PersonSpecifications.ageDescendingAndIdAfter(after.age(), after.id())
+                    : PersonSpecifications.ageAndIdAfter(after.age(), after.id()));
+        }
+        Sort sort = descending ? BY_AGE_DESC : BY_AGE;
+        if (fields != null) {
+            // The cursor is built from the age of the last row
+            List<Map<String, Object>> page = service.findFields(fields.with(PersonFields.Field.AGE), where, sort, limit);
+            return withNextLink(page, limit, "cursor", page.isEmpty() ? null : new PersonAgeCursor(
+                    (Integer) page.get(page.size() - 1).get("age"), (Long) page.get(page.size() - 1).get("id")).encode());
+        }
+        List<Person> page = service.findPage(where, sort, limit);
+        return withNextLink(page, limit, "cursor",
+                page.isEmpty() ? null : PersonAgeCursor.of(page.get(page.size() - 1)).encode());
+    }
+
+    // A full page means there may be more rows, so point the client at the next one
+    private static ResponseEntity<List<?>> withNextLink(List<?> page, int limit,
+            String positionParam, Object nextPosition) {
+        if (page.size() < Math.min(limit, PersonService.MAX_PAGE_SIZE)) {
+            return ResponseEntity.ok(page);
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam(positionParam, nextPosition)
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page);
     }
 }
\ No newline at end of file
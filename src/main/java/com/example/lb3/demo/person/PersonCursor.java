@@ -0,0 +1,33 @@
+package com.example.lb3.demo.person;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset position for endpoints ordered by name: the (name, id) of the last row of a page
+public record PersonCursor(String name, long id) {
+    private static final char SEPARATOR = ':';
+
+    public static PersonCursor of(Person person) {
+        return new PersonCursor(person.getName(), person.getId());
+    }
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + name;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PersonCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 1) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            return new PersonCursor(raw.substring(separator + 1),
+                    Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,229 @@
+package com.example.lb3.demo.person;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Bloom filter over every email in person, answers "definitely absent" without a query. Emails are
+// added when a write is published, before its transaction commits, so the filter never lags behind
+// the table; a rolled back write only leaves a false positive. Deleted emails stay in the filter
+// until the next rebuild. While no filter is ready every check falls through to the database.
+@Component
+public class PersonEmailFilter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PersonEmailFilter.class);
+    private static final long MIN_EXPECTED_INSERTIONS = 10_000;
+
+    private final PersonRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final double falsePositiveRate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "person-email-filter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    // A rebuild whose scan may have run before a bulk write committed must not be swapped in
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong uncommittedReloads = new AtomicLong();
+    // Emails of transactions that have not completed yet, a rebuild may not see them in its scan
+    private final Set<String> uncommitted = ConcurrentHashMap.newKeySet();
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder databaseChecks = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public PersonEmailFilter(PersonRepository repository, PlatformTransactionManager transactionManager,
+            @Value("${app.persons.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public boolean exists(String email, Predicate<String> database) {
+        BloomFilter current = filter;
+        if (current == null) {
+            bypassed.increment();
+            return database.test(email);
+        }
+        if (!current.mightContain(email)) {
+            negatives.increment();
+            return false;
+        }
+        databaseChecks.increment();
+        boolean exists = database.test(email);
+        if (!exists) {
+            falsePositives.increment();
+        }
+        return exists;
+    }
+
+    // Batch form of exists: emails the filter rules out are dropped, the rest go to the database in
+    // one call that returns what it found by email
+    public <T> Map<String, T> findExisting(Collection<String> emails, Function<List<String>, Map<String, T>> database) {
+        BloomFilter current = filter;
+        if (current == null) {
+            bypassed.add(emails.size());
+            return emails.isEmpty() ? Map.of() : database.apply(List.copyOf(emails));
+        }
+        List<String> candidates = emails.stream().filter(current::mightContain).toList();
+        negatives.add(emails.size() - candidates.size());
+        if (candidates.isEmpty()) {
+            return Map.of();
+        }
+        databaseChecks.add(candidates.size());
+        Map<String, T> found = database.apply(candidates);
+        falsePositives.add(candidates.size() - found.size());
+        return found;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    @EventListener
+    public void onPersonsChanged(PersonsChangedEvent event) {
+        if (event.reloadRequired()) {
+            // Rows written by the bulk statement are only visible to a scan once they are committed
+            reloads.incrementAndGet();
+            uncommittedReloads.incrementAndGet();
+            filter = null;
+            afterCompletion(() -> {
+                uncommittedReloads.decrementAndGet();
+                scheduleRebuild();
+            });
+            return;
+        }
+        List<String> emails = event.saved().stream()
+                .map(Person::getEmail)
+                .filter(email -> email != null)
+                .toList();
+        if (emails.isEmpty()) {
+            return;
+        }
+        uncommitted.addAll(emails);
+        afterCompletion(() -> emails.forEach(uncommitted::remove));
+        emails.forEach(this::add);
+        BloomFilter current = filter;
+        if (current != null && current.insertions() > current.expectedInsertions()) {
+            scheduleRebuild();
+        }
+    }
+
+    // Sizes a new filter for twice the current row count and swaps it in, the old one keeps
+    // answering until then
+    public synchronized PersonEmailFilterStats rebuild() {
+        long started = System.nanoTime();
+        long reload = reloads.get();
+        boolean complete = uncommittedReloads.get() == 0;
+        BloomFilter next = new BloomFilter(Math.max(MIN_EXPECTED_INSERTIONS, repository.count() * 2), falsePositiveRate);
+        building = next;
+        try {
+            uncommitted.forEach(next::add);
+            // Not read-only and never joining a caller's read-only transaction: a lagging replica
+            // could miss committed emails
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> emails = repository.streamAllEmails()) {
+                    emails.forEach(next::add);
+                }
+            });
+            if (complete && reloads.get() == reload) {
+                filter = next;
+            }
+        } finally {
+            building = null;
+        }
+        rebuilds.incrementAndGet();
+        log.info("Rebuilt email filter with {} emails in {} ms", next.insertions(), (System.nanoTime() - started) / 1_000_000);
+        return stats();
+    }
+
+    public PersonEmailFilterStats stats() {
+        BloomFilter current = filter;
+        long falsePositiveCount = falsePositives.sum();
+        long absentChecks = falsePositiveCount + negatives.sum();
+        return new PersonEmailFilterStats(
+                current != null,
+                current == null ? 0 : current.insertions(),
+                current == null ? 0 : current.expectedInsertions(),
+                current == null ? 0 : current.bitSize(),
+                current == null ? 0 : current.hashCount(),
+                current == null ? 0 : current.expectedFalsePositiveRate(),
+                negatives.sum(),
+                databaseChecks.sum(),
+                falsePositiveCount,
+                absentChecks == 0 ? 0 : (double) falsePositiveCount / absentChecks,
+                bypassed.sum(),
+                rebuilds.get());
+    }
+
+    private void add(String email) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(email);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.add(email);
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            rebuildScheduled.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Rebuilding the email filter failed, email checks go to the database", e);
+            }
+        });
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.example.lb3.demo.person;
+
+// negativeCount checks never reached the database, falsePositiveCount of the databaseCheckCount did
+// so for an absent email. bypassCount checks ran while no filter was ready.
+public record PersonEmailFilterStats(boolean ready, long insertions, long expectedInsertions, long bitSize,
+        int hashCount, double expectedFalsePositiveRate, long negativeCount, long databaseCheckCount,
+        long falsePositiveCount, double observedFalsePositiveRate, long bypassCount, long rebuildCount) {
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example.lb3.demo.person;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// A sparse fieldset such as ?fields=name,email, converted from the request parameter through valueOf.
+// The id is always part of it, so every result stays addressable and pageable. The version is not
+// selectable, it is @JsonIgnore on Person and only ever sent as the ETag of a single person.
+public record PersonFields(Set<Field> fields) {
+    public enum Field {
+        ID("id", Person::getId),
+        NAME("name", Person::getName),
+        EMAIL("email", Person::getEmail),
+        AGE("age", Person::getAge);
+
+        private final String property;
+        private final Function<Person, Object> getter;
+
+        Field(String property, Function<Person, Object> getter) {
+            this.property = property;
+            this.getter = getter;
+        }
+
+        public String property() {
+            return property;
+        }
+    }
+
+    public PersonFields {
+        EnumSet<Field> copy = EnumSet.of(Field.ID);
+        copy.addAll(fields);
+        fields = Collections.unmodifiableSet(copy);
+    }
+
+    public static PersonFields valueOf(String fields) {
+        EnumSet<Field> parsed = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            String property = name.trim().toLowerCase(Locale.ROOT);
+            if (property.isEmpty()) {
+                continue;
+            }
+            parsed.add(Arrays.stream(Field.values())
+                    .filter(field -> field.property.equals(property))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + name)));
+        }
+        return new PersonFields(parsed);
+    }
+
+    public PersonFields with(Field field) {
+        EnumSet<Field> extended = EnumSet.of(field);
+        extended.addAll(fields);
+        return new PersonFields(extended);
+    }
+
+    // For results that are already in memory
+    public Map<String, Object> select(Person person) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        fields.forEach(field -> values.put(field.property, field.getter.apply(person)));
+        return values;
+    }
+}
\ No newline at end of file
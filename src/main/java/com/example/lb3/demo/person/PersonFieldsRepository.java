@@ -0,0 +1,13 @@
+package com.example.lb3.demo.person;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+// Reads only the requested columns into plain maps, no entities are created or managed
+public interface PersonFieldsRepository {
+    List<Map<String, Object>> findFields(PersonFields fields, Specification<Person> where, Sort sort, Limit limit);
+}
\ No newline at end of file
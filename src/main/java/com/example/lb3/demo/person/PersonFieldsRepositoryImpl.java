@@ -0,0 +1,53 @@
+package com.example.lb3.demo.person;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class PersonFieldsRepositoryImpl implements PersonFieldsRepository {
+    private final EntityManager entityManager;
+
+    PersonFieldsRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(PersonFields fields, Specification<Person> where, Sort sort,
+            Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Person> root = query.from(Person.class);
+        query.multiselect(fields.fields().stream()
+                .<Selection<?>>map(field -> root.get(field.property()).alias(field.property()))
+                .toList());
+        Predicate predicate = where.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typed.setMaxResults(limit.max());
+        }
+        return typed.getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    fields.fields().forEach(field -> values.put(field.property(), tuple.get(field.property())));
+                    return values;
+                })
+                .toList();
+    }
+}
\ No newline at end of file
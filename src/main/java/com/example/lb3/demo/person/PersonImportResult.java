@@ -0,0 +1,6 @@
+package com.example.lb3.demo.person;
+
+import java.util.List;
+
+public record PersonImportResult(long inserted, long rejected, List<String> errors) {
+}
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.example.lb3.demo.person;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Bulk import through PostgreSQL COPY. Rows are parsed and validated one line at a time and
+// copied into a temporary staging table, which is then merged into person in a single statement.
+@Service
+public class PersonImportService {
+    public static final int MAX_REPORTED_ERRORS = 100;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING_TABLE =
+            "CREATE TEMPORARY TABLE person_import (line bigint, name text, email text, age int) ON COMMIT DROP";
+    private static final String COPY_INTO_STAGING_TABLE =
+            "COPY person_import (line, name, email, age) FROM STDIN WITH (FORMAT csv)";
+    // Only the first occurrence of an email within the import is kept, later ones and emails
+    // that already exist in person are rejected
+    private static final String STAGED_ROWS = """
+            SELECT line, name, email, age,
+                   row_number() OVER (PARTITION BY email ORDER BY line) AS occurrence
+            FROM person_import""";
+    private static final String SELECT_DUPLICATES = "SELECT line, email FROM (" + STAGED_ROWS + ") staged"
+            + " WHERE email IS NOT NULL AND (occurrence > 1 OR EXISTS (SELECT 1 FROM person p WHERE p.email = staged.email))"
+            + " ORDER BY line LIMIT ?";
+    // Ids are reserved the way Hibernate's pooled optimizer does it, one nextval per block of
+    // ID_ALLOCATION_SIZE rows, so imports neither collide with nor waste the sequence
+    private static final String MERGE_STAGED_ROWS = "WITH accepted AS ("
+            + " SELECT line, name, email, age, row_number() OVER (ORDER BY line) - 1 AS position"
+            + " FROM (" + STAGED_ROWS + ") staged WHERE email IS NULL OR occurrence = 1"
+            + "), blocks AS ("
+            + " SELECT block, nextval('person_seq') AS last_id"
+            + " FROM generate_series(0, (SELECT (count(*) - 1) / " + Person.ID_ALLOCATION_SIZE + " FROM accepted)) block"
+            + ")"
+            + " INSERT INTO person (id, name, email, age)"
+            + " SELECT blocks.last_id - " + (Person.ID_ALLOCATION_SIZE - 1) + " + accepted.position % " + Person.ID_ALLOCATION_SIZE + ","
+            + " accepted.name, accepted.email, accepted.age"
+            + " FROM accepted JOIN blocks ON blocks.block = accepted.position / " + Person.ID_ALLOCATION_SIZE
+            + " ORDER BY accepted.line"
+            + " ON CONFLICT (email) DO NOTHING";
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PersonImportService(JdbcTemplate jdbcTemplate, Validator validator, ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public PersonImportResult importPersons(InputStream body, Format format) {
+        PersonImportResult result = jdbcTemplate.execute((ConnectionCallback<PersonImportResult>) connection -> {
+            try {
+                return importPersons(connection, body, format);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // Imported rows never pass through the persistence context, in-memory views rebuild instead
+        if (result != null && result.inserted() > 0) {
+            eventPublisher.publishEvent(PersonsChangedEvent.reload());
+        }
+        return result;
+    }
+
+    private PersonImportResult importPersons(Connection connection, InputStream body, Format format)
+            throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_TABLE);
+        }
+
+        List<String> errors = new ArrayList<>();
+        long invalid = 0;
+        long staged = 0;
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_INTO_STAGING_TABLE);
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(line))) {
+                    continue;
+                }
+                String error;
+                try {
+                    Person person = format == Format.CSV ? parseCsv(line) : parseJson(line);
+                    error = validate(person);
+                    if (error == null) {
+                        appendCsvRow(buffer, lineNumber, person);
+                        staged++;
+                    }
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+                if (error != null) {
+                    invalid++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("line " + lineNumber + ": " + error);
+                    }
+                }
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_DUPLICATES)) {
+            statement.setInt(1, MAX_REPORTED_ERRORS - errors.size());
+            try (ResultSet duplicates = statement.executeQuery()) {
+                while (duplicates.next()) {
+                    errors.add("line " + duplicates.getLong("line") + ": email already exists: "
+                            + duplicates.getString("email"));
+                }
+            }
+        }
+        long inserted = 0;
+        if (staged > 0) {
+            try (Statement statement = connection.createStatement()) {
+                inserted = statement.executeUpdate(MERGE_STAGED_ROWS);
+            }
+        }
+        return new PersonImportResult(inserted, invalid + staged - inserted, errors);
+    }
+
+    private String validate(Person person) {
+        var violations = validator.validate(person);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Person parseJson(String line) {
+        try {
+            Person person = objectMapper.readValue(line, Person.class);
+            person.setId(null);
+            return person;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.replace(" ", "").equalsIgnoreCase("name,email,age");
+    }
+
+    // name,email,age with RFC 4180 quoting, an empty email is imported as null
+    private static Person parseCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        if (quoted || fields.size() != 3) {
+            throw new IllegalArgumentException("expected 3 columns name,email,age");
+        }
+        int age;
+        try {
+            age = Integer.parseInt(fields.get(2).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("age must be an integer");
+        }
+        String email = fields.get(1).trim();
+        return Person.builder()
+                .name(fields.get(0))
+                .email(email.isEmpty() ? null : email)
+                .age(age)
+                .build();
+    }
+
+    private static void appendCsvRow(StringBuilder buffer, long lineNumber, Person person) {
+        buffer.append(lineNumber).append(',');
+        appendCsvValue(buffer, person.getName());
+        buffer.append(',');
+        appendCsvValue(buffer, person.getEmail());
+        buffer.append(',').append(person.getAge()).append('\n');
+    }
+
+    // Unquoted empty fields are NULL in COPY csv, so every value is quoted
+    private static void appendCsvValue(StringBuilder buffer, String value) {
+        if (value != null) {
+            buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
\ No newline at end of file
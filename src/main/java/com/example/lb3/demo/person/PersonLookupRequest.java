@@ -0,0 +1,11 @@
+package com.example.lb3.demo.person;
+
+import java.util.List;
+
+// Either list may be left out
+public record PersonLookupRequest(List<Long> ids, List<String> emails) {
+    public PersonLookupRequest {
+        ids = ids == null ? List.of() : ids;
+        emails = emails == null ? List.of() : emails;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.example.lb3.demo.person;
+
+import java.util.List;
+
+public record PersonLookupResult(List<Person> persons, List<Long> missingIds, List<String> missingEmails) {
+}
\ No newline at end of file
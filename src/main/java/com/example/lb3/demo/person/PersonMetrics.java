@@ -0,0 +1,85 @@
+package com.example.lb3.demo.person;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+// How much of the read traffic the in-memory views answer, next to the repository timers of the
+// queries they save. Values are read from the stats() of each view when the registry is scraped.
+@Component
+public class PersonMetrics implements MeterBinder {
+    private final PersonCache cache;
+    private final PersonEmailFilter emailFilter;
+    private final PersonNameIndex nameIndex;
+    private final PersonAgeIndex ageIndex;
+    private final OldestPersonsTracker oldestTracker;
+
+    public PersonMetrics(PersonCache cache, PersonEmailFilter emailFilter, PersonNameIndex nameIndex,
+            PersonAgeIndex ageIndex, OldestPersonsTracker oldestTracker) {
+        this.cache = cache;
+        this.emailFilter = emailFilter;
+        this.nameIndex = nameIndex;
+        this.ageIndex = ageIndex;
+        this.oldestTracker = oldestTracker;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("persons.cache.size", cache, c -> c.stats().size())
+                .description("Persons cached by id")
+                .register(registry);
+        FunctionCounter.builder("persons.cache.gets", cache, c -> c.stats().hitCount())
+                .tag("key", "id").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("persons.cache.gets", cache, c -> c.stats().missCount())
+                .tag("key", "id").tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("persons.cache.gets", cache, c -> c.stats().emailHitCount())
+                .tag("key", "email").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("persons.cache.gets", cache, c -> c.stats().emailMissCount())
+                .tag("key", "email").tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("persons.cache.evictions", cache, c -> c.stats().evictionCount())
+                .register(registry);
+
+        // negative checks never reached the database, bypass checks ran before the filter was built
+        FunctionCounter.builder("persons.email.filter.checks", emailFilter, f -> f.stats().negativeCount())
+                .tag("result", "negative")
+                .register(registry);
+        FunctionCounter.builder("persons.email.filter.checks", emailFilter, f -> f.stats().databaseCheckCount())
+                .tag("result", "database")
+                .register(registry);
+        FunctionCounter.builder("persons.email.filter.checks", emailFilter, f -> f.stats().bypassCount())
+                .tag("result", "bypass")
+                .register(registry);
+        FunctionCounter.builder("persons.email.filter.false.positives", emailFilter,
+                        f -> f.stats().falsePositiveCount())
+                .register(registry);
+        Gauge.builder("persons.email.filter.insertions", emailFilter, f -> f.stats().insertions())
+                .register(registry);
+
+        Gauge.builder("persons.name.index.entries", nameIndex, i -> i.stats().entries())
+                .register(registry);
+        Gauge.builder("persons.name.index.pending.changes", nameIndex, i -> i.stats().pendingChanges())
+                .register(registry);
+        Gauge.builder("persons.name.index.memory", nameIndex, i -> i.stats().estimatedBytes())
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("persons.name.index.rebuilds", nameIndex, i -> i.stats().rebuildCount())
+                .register(registry);
+
+        Gauge.builder("persons.age.index.ids", ageIndex, i -> i.stats().ids())
+                .register(registry);
+        Gauge.builder("persons.age.index.memory", ageIndex, i -> i.stats().estimatedBytes())
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("persons.age.index.rebuilds", ageIndex, i -> i.stats().rebuildCount())
+                .register(registry);
+
+        FunctionCounter.builder("persons.oldest.reloads", oldestTracker, OldestPersonsTracker::getReloads)
+                .register(registry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.example.lb3.demo.person;
+
+public record PersonName(long id, String name, long version) {
+}
\ No newline at end of file
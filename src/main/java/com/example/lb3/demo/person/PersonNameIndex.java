@@ -0,0 +1,282 @@
+package com.example.lb3.demo.person;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Autocomplete over person names without touching the database. A compact SortedNameArrays base is
+// built from the table, writes land in a small delta that overrides it (changed ids are skipped in
+// the base) and are folded into a new base once the delta grows. Changes are applied after commit,
+// so suggestions are eventually consistent with the table. Events can be applied out of commit order,
+// a save older than the version the index holds for its id is ignored.
+@Component
+public class PersonNameIndex implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PersonNameIndex.class);
+    public static final int MAX_SUGGESTIONS = 100;
+    static final int COMPACTION_THRESHOLD = 50_000;
+    // Rough per-change footprint of the delta: map nodes, strings and the change itself
+    private static final long DELTA_BYTES_PER_CHANGE = 256;
+
+    public enum Status {
+        LOADING, READY, OVER_BUDGET
+    }
+
+    // name == null marks a deleted person, its version is above any save that could still arrive
+    private record Change(long id, String name, List<String> keys, long version, long sequence) {
+    }
+
+    private final PersonRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxBytes;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "person-name-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    private volatile SortedNameArrays base = SortedNameArrays.EMPTY;
+    private volatile Status status = Status.LOADING;
+    private final ConcurrentHashMap<Long, Change> changes = new ConcurrentHashMap<>();
+    // suffix key + '\0' + id -> id, the delta's own prefix index
+    private final ConcurrentSkipListMap<String, Long> changedKeys = new ConcurrentSkipListMap<>();
+    private long sequence;
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private volatile long lastBuildMillis;
+
+    public PersonNameIndex(PersonRepository repository, PlatformTransactionManager transactionManager,
+            @Value("${app.persons.autocomplete.max-memory:256MB}") DataSize maxMemory) {
+        this.repository = repository;
+        // Not read-only: a scan on a lagging replica could miss changes that are pruned from the delta
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBytes = maxMemory.toBytes();
+    }
+
+    // Empty while the index is not usable, callers tell that apart from "no matches" by the status
+    public Optional<List<PersonNameSuggestion>> suggest(String prefix, int limit) {
+        if (status != Status.READY) {
+            return Optional.empty();
+        }
+        String normalized = SortedNameArrays.normalize(prefix);
+        int count = Math.min(limit, MAX_SUGGESTIONS);
+        if (normalized.isEmpty() || count < 1) {
+            return Optional.of(List.of());
+        }
+
+        record Candidate(String key, long id, String name) {
+        }
+        List<Candidate> candidates = new ArrayList<>(count * 2);
+        Set<Long> seen = new HashSet<>();
+        SortedNameArrays current = base;
+        current.visit(normalized, changes::containsKey, (key, person) -> {
+            if (seen.add(current.id(person))) {
+                candidates.add(new Candidate(key, current.id(person), current.name(person)));
+            }
+            return seen.size() < count;
+        });
+        ConcurrentNavigableMap<String, Long> delta = changedKeys.tailMap(normalized);
+        for (Map.Entry<String, Long> entry : delta.entrySet()) {
+            if (!entry.getKey().startsWith(normalized) || candidates.size() >= count * 2) {
+                break;
+            }
+            Change change = changes.get(entry.getValue());
+            if (change != null && change.name() != null && seen.add(change.id())) {
+                String key = entry.getKey();
+                candidates.add(new Candidate(key.substring(0, key.indexOf('\0')), change.id(), change.name()));
+            }
+        }
+        return Optional.of(candidates.stream()
+                .sorted(Comparator.comparing(Candidate::key).thenComparingLong(Candidate::id))
+                .limit(count)
+                .map(candidate -> new PersonNameSuggestion(candidate.id(), candidate.name()))
+                .toList());
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public PersonNameIndexStats stats() {
+        SortedNameArrays current = base;
+        long deltaBytes = changes.size() * DELTA_BYTES_PER_CHANGE;
+        return new PersonNameIndexStats(status, current.size(), current.entryCount(), changes.size(),
+                current.estimatedBytes() + deltaBytes, maxBytes, rebuilds.get(), compactions.get(), lastBuildMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPersonsChanged(PersonsChangedEvent event) {
+        if (event.reloadRequired()) {
+            scheduleRebuild();
+            return;
+        }
+        synchronized (writeLock) {
+            if (status == Status.OVER_BUDGET) {
+                return;
+            }
+            event.removedIds().forEach(id -> put(new Change(id, null, List.of(), Long.MAX_VALUE, ++sequence)));
+            for (Person person : event.saved()) {
+                if (appliedVersion(person.getId()) > person.getVersion()) {
+                    continue;
+                }
+                String name = person.getName() == null ? "" : person.getName();
+                put(new Change(person.getId(), name, SortedNameArrays.suffixes(SortedNameArrays.normalize(name)),
+                        person.getVersion(), ++sequence));
+            }
+        }
+        if (changes.size() >= COMPACTION_THRESHOLD && compactionScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                compactionScheduled.set(false);
+                compact();
+            });
+        }
+    }
+
+    // Reads the whole table into a new base. Changes committed after the scan started stay in the delta.
+    public synchronized PersonNameIndexStats rebuild() {
+        long started = System.currentTimeMillis();
+        long startSequence = currentSequence();
+        SortedNameArrays.Builder builder = new SortedNameArrays.Builder(maxBytes);
+        try {
+            transactionTemplate.executeWithoutResult(transaction -> {
+                try (Stream<PersonName> names = repository.streamAllNames()) {
+                    names.forEach(name -> builder.add(name.id(), name.name() == null ? "" : name.name(), name.version()));
+                }
+            });
+            replaceBase(builder.build(), startSequence);
+        } catch (SortedNameArrays.BudgetExceededException e) {
+            disable(e);
+            return stats();
+        }
+        rebuilds.incrementAndGet();
+        lastBuildMillis = System.currentTimeMillis() - started;
+        log.info("Built autocomplete index over {} names in {} ms", base.size(), lastBuildMillis);
+        return stats();
+    }
+
+    // Folds the delta into a new base without going to the database
+    synchronized void compact() {
+        if (status != Status.READY) {
+            return;
+        }
+        long startSequence = currentSequence();
+        Map<Long, Change> snapshot = new HashMap<>(changes);
+        SortedNameArrays current = base;
+        SortedNameArrays.Builder builder = new SortedNameArrays.Builder(maxBytes);
+        try {
+            for (int person = 0; person < current.size(); person++) {
+                if (!snapshot.containsKey(current.id(person))) {
+                    builder.add(current.id(person), current.name(person), current.version(person));
+                }
+            }
+            snapshot.values().stream()
+                    .filter(change -> change.name() != null)
+                    .forEach(change -> builder.add(change.id(), change.name(), change.version()));
+            replaceBase(builder.build(), startSequence);
+        } catch (SortedNameArrays.BudgetExceededException e) {
+            disable(e);
+            return;
+        }
+        compactions.incrementAndGet();
+    }
+
+    // The new base goes live before the changes it contains leave the delta, a concurrent query
+    // sees either the old or the new state of every person
+    private void replaceBase(SortedNameArrays next, long startSequence) {
+        base = next;
+        status = Status.READY;
+        synchronized (writeLock) {
+            changes.values().removeIf(change -> {
+                if (change.sequence() > startSequence) {
+                    return false;
+                }
+                removeKeys(change);
+                return true;
+            });
+        }
+    }
+
+    // Nothing is served or applied while over budget, the delta goes too
+    private void disable(SortedNameArrays.BudgetExceededException e) {
+        log.warn("Autocomplete index disabled: {}", e.getMessage());
+        synchronized (writeLock) {
+            base = SortedNameArrays.EMPTY;
+            status = Status.OVER_BUDGET;
+            changes.clear();
+            changedKeys.clear();
+        }
+    }
+
+    private long appliedVersion(long id) {
+        Change change = changes.get(id);
+        return change != null ? change.version() : base.versionOf(id);
+    }
+
+    private void put(Change change) {
+        Change previous = changes.put(change.id(), change);
+        if (previous != null) {
+            removeKeys(previous);
+        }
+        change.keys().forEach(key -> changedKeys.put(key + '\0' + change.id(), change.id()));
+    }
+
+    private void removeKeys(Change change) {
+        change.keys().forEach(key -> changedKeys.remove(key + '\0' + change.id()));
+    }
+
+    private long currentSequence() {
+        synchronized (writeLock) {
+            return sequence;
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            rebuildScheduled.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Building the autocomplete index failed", e);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
\ No newline at end of file
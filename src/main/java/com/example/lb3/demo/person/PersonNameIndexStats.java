@@ -0,0 +1,6 @@
+package com.example.lb3.demo.person;
+
+// estimatedBytes covers the base arrays and an estimate for the pending changes
+public record PersonNameIndexStats(PersonNameIndex.Status status, int names, int entries, int pendingChanges,
+        long estimatedBytes, long maxBytes, long rebuildCount, long compactionCount, long lastBuildMillis) {
+}
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.example.lb3.demo.person;
+
+public record PersonNameSuggestion(long id, String name) {
+}
\ No newline at end of file
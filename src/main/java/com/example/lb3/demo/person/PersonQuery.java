@@ -0,0 +1,50 @@
+package com.example.lb3.demo.person;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Composable filters of /api/persons/query, every one is optional and all of them have to match.
+// Filters are added in a fixed order and absent ones leave nothing in the SQL, so each combination
+// is one statement shape whose prepared statement and plan are reused.
+public record PersonQuery(String name, String nameContains, String email, String emailContains,
+        Integer minAge, Integer maxAge) {
+    private static final Set<String> SORTABLE = Set.of("id", "name", "email", "age");
+
+    public Specification<Person> toSpecification() {
+        List<Specification<Person>> filters = new ArrayList<>();
+        if (name != null) {
+            filters.add(PersonSpecifications.nameEquals(name));
+        }
+        if (nameContains != null) {
+            filters.add(PersonSpecifications.nameContainsIgnoreCase(nameContains));
+        }
+        if (email != null) {
+            filters.add(PersonSpecifications.emailEquals(email));
+        }
+        if (emailContains != null) {
+            filters.add(PersonSpecifications.emailContainsIgnoreCase(emailContains));
+        }
+        if (minAge != null) {
+            filters.add(PersonSpecifications.ageAtLeast(minAge));
+        }
+        if (maxAge != null) {
+            filters.add(PersonSpecifications.ageAtMost(maxAge));
+        }
+        return Specification.allOf(filters);
+    }
+
+    // "age" or "-age" for descending, ties are always broken by id so pages are stable
+    public static Sort sort(String sort) {
+        boolean descending = sort.startsWith("-");
+        String property = descending ? sort.substring(1) : sort;
+        if (!SORTABLE.contains(property)) {
+            throw new IllegalArgumentException("Cannot sort by: " + sort);
+        }
+        Sort order = Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, property);
+        return property.equals("id") ? order : order.and(Sort.by("id"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.lb3.demo.person;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset position for the ranked search: the (rank, id) of the last row of a page. The rank
+// is written with Float.toString, which reads back to the same float, so ties compare exactly.
+public record PersonRankCursor(float rank, long id) {
+    private static final char SEPARATOR = ':';
+
+    public static PersonRankCursor of(PersonSearchHit hit) {
+        return new PersonRankCursor(hit.getRank(), hit.getId());
+    }
+
+    public String encode() {
+        String raw = rank + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PersonRankCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 1) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            return new PersonRankCursor(Float.parseFloat(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+}
\ No newline at end of file
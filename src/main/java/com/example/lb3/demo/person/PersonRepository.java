@@ -1,22 +1,58 @@
 package com.example.lb3.demo.person;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, JpaSpecificationExecutor<Person>,
+        PersonFieldsRepository {
+    // '%keyword%' matched against lower(column), so the pg_trgm GIN indexes from schema.sql apply.
+    // LIKE wildcards in the keyword are escaped, just like the derived Containing queries did.
+    String LOWER_CONTAINS = "'%' || replace(replace(replace(lower(?1), '\\', '\\\\'), '%', '\\%'), '_', '\\_') || '%'";
+    String CONTAINS = "'%' || replace(replace(replace(?1, '\\', '\\\\'), '%', '\\%'), '_', '\\_') || '%'";
+    String LOWER_CONTAINS_2 = "'%' || replace(replace(replace(lower(?2), '\\', '\\\\'), '%', '\\%'), '_', '\\_') || '%'";
+    // The same pattern for JPQL, from the named parameter :keyword
+    String JPQL_LOWER_CONTAINS = "CONCAT('%', REPLACE(REPLACE(REPLACE(LOWER(:keyword), '\\', '\\\\'), '%', '\\%'), '_', '\\_'), '%')";
+    // The mapped columns, SELECT * would also ship the generated search_vector
+    String PERSON_COLUMNS = "id, name, email, age, version";
+    String SEARCH_BY_NAME = "SELECT " + PERSON_COLUMNS + " FROM person WHERE lower(name) LIKE " + LOWER_CONTAINS;
+    String SEARCH_BY_EMAIL = "SELECT " + PERSON_COLUMNS + " FROM person WHERE lower(email) LIKE " + LOWER_CONTAINS;
+    String COUNT_BY_NAME = "SELECT count(*) FROM person WHERE lower(name) LIKE " + LOWER_CONTAINS;
+    // Case-sensitive, the lowercase condition narrows the rows through the index first
+    String FIRST_5_BY_NAME_ORDER_BY_AGE = "SELECT " + PERSON_COLUMNS + " FROM person WHERE lower(name) LIKE " + LOWER_CONTAINS
+            + " AND name LIKE " + CONTAINS + " ORDER BY age ASC LIMIT 5";
+    // Full-text matches with their rank, names weigh more than email addresses (see schema.sql)
+    String RANKED_MATCHES = "SELECT " + PERSON_COLUMNS + ", ts_rank(search_vector, to_tsquery('simple', :query)) AS rank"
+            + " FROM person WHERE search_vector @@ to_tsquery('simple', :query)";
+    // An empty name or email is no filter, a custom plan folds that condition away
+    String AGE_HISTOGRAM = "SELECT age, count(*) AS count FROM person WHERE age BETWEEN ?3 AND ?4"
+            + " AND (?1 = '' OR lower(name) LIKE " + LOWER_CONTAINS + ")"
+            + " AND (?2 = '' OR lower(email) LIKE " + LOWER_CONTAINS_2 + ")"
+            + " GROUP BY age ORDER BY age";
+
     // Find by single field
     List<Person> findByName(String name);
     Optional<Person> findByEmail(String email);  // Changed to Optional since email should be unique
     List<Person> findByAge(int age);
     
     // Find by field containing/like
+    @Query(value = SEARCH_BY_NAME, nativeQuery = true)
     List<Person> findByNameContainingIgnoreCase(String name);
+
+    @Query(value = SEARCH_BY_EMAIL, nativeQuery = true)
     List<Person> findByEmailContainingIgnoreCase(String email);
     
     // Find by multiple fields
@@ -38,24 +74,106 @@ public interface PersonRepository extends JpaRepository<Person, Long> {
     
     // Count queries
     long countByAge(int age);
+
+    @Query(value = COUNT_BY_NAME, nativeQuery = true)
     long countByNameContainingIgnoreCase(String name);
+
+    @Query(value = AGE_HISTOGRAM, nativeQuery = true)
+    List<PersonAgeCount> countByAgeGroups(String name, String email, int minAge, int maxAge);
     
-    // Delete operations
-    void deleteByEmail(String email);
-    void deleteByNameAndAge(String name, int age);
+    // Delete operations, single statements that return the ids of the deleted rows
+    @Query(value = "DELETE FROM person WHERE email = :email RETURNING id", nativeQuery = true)
+    List<Long> deleteByEmail(@Param("email") String email);
+
+    @Query(value = "DELETE FROM person WHERE name = :name AND age = :age RETURNING id", nativeQuery = true)
+    List<Long> deleteByNameAndAge(@Param("name") String name, @Param("age") int age);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Person p")
+    int deleteAllInBulk();
+
+    // TRUNCATE reports no row count, locking first keeps a preceding count() exact
+    @Modifying
+    @Query(value = "LOCK TABLE person IN ACCESS EXCLUSIVE MODE", nativeQuery = true)
+    void lockTable();
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "TRUNCATE TABLE person", nativeQuery = true)
+    void truncate();
     
     // Custom queries using JPQL
     @Query("SELECT p FROM Person p WHERE p.age >= :minAge AND p.age <= :maxAge ORDER BY p.age ASC")
     List<Person> findPeopleInAgeRange(@Param("minAge") int minAge, @Param("maxAge") int maxAge);
     
-    @Query("SELECT p FROM Person p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.email) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+    @Query("SELECT p FROM Person p WHERE LOWER(p.name) LIKE " + JPQL_LOWER_CONTAINS + " ESCAPE '\\'"
+            + " OR LOWER(p.email) LIKE " + JPQL_LOWER_CONTAINS + " ESCAPE '\\'")
     List<Person> searchByNameOrEmailKeyword(@Param("keyword") String keyword);
-    
+
+    // Full-text search over the generated search_vector column. Every match is ranked and the top
+    // limit are kept (a top-N sort, memory stays bounded), pages continue after the (rank, id) of the
+    // last row instead of an offset. The cost grows with the number of matches, not with the page.
+    @Query(value = RANKED_MATCHES + " ORDER BY rank DESC, id LIMIT :limit", nativeQuery = true)
+    List<PersonSearchHit> searchRanked(@Param("query") String query, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM (" + RANKED_MATCHES + ") p"
+            + " WHERE p.rank < CAST(:rank AS real) OR (p.rank = CAST(:rank AS real) AND p.id > :id)"
+            + " ORDER BY p.rank DESC, p.id LIMIT :limit", nativeQuery = true)
+    List<PersonSearchHit> searchRankedAfter(@Param("query") String query, @Param("rank") float rank,
+            @Param("id") long id, @Param("limit") int limit);
+
+    List<Person> findByEmailIn(Collection<String> emails);
+
+    @Query("SELECT p.id FROM Person p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Single statement updates that hand back the new row, empty when no row matched
+    @Query(value = "UPDATE person SET name = :name, email = :email, age = :age, version = version + 1"
+            + " WHERE id = :id RETURNING id, name, email, age, version", nativeQuery = true)
+    Optional<Person> updateReturning(@Param("id") long id, @Param("name") String name,
+            @Param("email") String email, @Param("age") int age);
+
+    @Query(value = "UPDATE person SET name = :name, email = :email, age = :age, version = version + 1"
+            + " WHERE id = :id AND version IN :versions RETURNING id, name, email, age, version", nativeQuery = true)
+    Optional<Person> updateReturningIfVersion(@Param("id") long id, @Param("versions") Collection<Long> versions,
+            @Param("name") String name, @Param("email") String email, @Param("age") int age);
+
     // Native SQL query example
-    @Query(value = "SELECT * FROM person WHERE age = (SELECT MAX(age) FROM person)", nativeQuery = true)
+    @Query(value = "SELECT " + PERSON_COLUMNS + " FROM person WHERE age = (SELECT MAX(age) FROM person)", nativeQuery = true)
     List<Person> findOldestPeople();
     
     // Limiting results
     List<Person> findTop3ByOrderByAgeDesc();
+
+    List<Person> findByOrderByAgeDescIdAsc(Limit limit);
+
+    @Query(value = FIRST_5_BY_NAME_ORDER_BY_AGE, nativeQuery = true)
     List<Person> findFirst5ByNameContainingOrderByAgeAsc(String name);
+
+    // Keyset pagination, every page is an index range scan regardless of its depth
+    List<Person> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+    List<Person> findByAgeOrderByNameAscIdAsc(int age, Limit limit);
+
+    @Query("SELECT p FROM Person p WHERE p.age = :age AND (p.name > :name OR (p.name = :name AND p.id > :id)) ORDER BY p.name ASC, p.id ASC")
+    List<Person> findByAgeOrderByNameAscAfter(@Param("age") int age, @Param("name") String name,
+            @Param("id") long id, Limit limit);
+
+    // Streaming, rows are pulled from a server-side cursor in chunks instead of being materialized
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Person p ORDER BY p.id ASC")
+    Stream<Person> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT p.email FROM Person p WHERE p.email IS NOT NULL")
+    Stream<String> streamAllEmails();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new com.example.lb3.demo.person.PersonName(p.id, p.name, p.version) FROM Person p")
+    Stream<PersonName> streamAllNames();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new com.example.lb3.demo.person.PersonAge(p.id, p.age, p.version) FROM Person p ORDER BY p.age, p.id")
+    Stream<PersonAge> streamAllAges();
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.lb3.demo.person;
+
+// A full-text match with its rank, the rank is the keyset position of the ranked search
+public interface PersonSearchHit {
+    long getId();
+    String getName();
+    String getEmail();
+    int getAge();
+    long getVersion();
+    float getRank();
+
+    default Person toPerson() {
+        return Person.builder()
+                .id(getId())
+                .name(getName())
+                .email(getEmail())
+                .age(getAge())
+                .version(getVersion())
+                .build();
+    }
+}
\ No newline at end of file
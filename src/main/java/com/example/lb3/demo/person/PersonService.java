@@ -1,108 +1,169 @@
 package com.example.lb3.demo.person;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Reads run in read-only transactions (no dirty checking, no flush, routed to a replica when one is
+// configured), every method that writes is annotated @Transactional on its own
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class PersonService {
-    private final PersonRepository repository;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    // Keeps IN lists well below the PostgreSQL bind parameter limit
+    static final int ID_CHUNK_SIZE = 1000;
+    public static final int MAX_LOOKUP_SIZE = 10_000;
+    static final int MIN_PREFIX_LENGTH = 3;
+    private static final Pattern SEARCH_TERM = Pattern.compile("[\\p{L}\\p{N}]+");
 
-    public PersonService(PersonRepository repository) {
+    private final PersonRepository repository;
+    private final EntityManager entityManager;
+    private final PersonCache cache;
+    private final PersonEmailFilter emailFilter;
+    private final PersonNameIndex nameIndex;
+    private final PersonAgeIndex ageIndex;
+    private final OldestPersonsTracker oldestTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean truncateOnDeleteAll;
+    private final int insertBatchSize;
+
+    public PersonService(PersonRepository repository, EntityManager entityManager, PersonCache cache,
+            PersonEmailFilter emailFilter, PersonNameIndex nameIndex, PersonAgeIndex ageIndex,
+            OldestPersonsTracker oldestTracker, ApplicationEventPublisher eventPublisher,
+            @Value("${app.persons.truncate-on-delete-all:false}") boolean truncateOnDeleteAll,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}") int insertBatchSize) {
         this.repository = repository;
+        this.entityManager = entityManager;
+        this.cache = cache;
+        this.emailFilter = emailFilter;
+        this.nameIndex = nameIndex;
+        this.ageIndex = ageIndex;
+        this.oldestTracker = oldestTracker;
+        this.eventPublisher = eventPublisher;
+        this.truncateOnDeleteAll = truncateOnDeleteAll;
+        this.insertBatchSize = insertBatchSize;
+    }
+
+    // Sparse fieldsets: only the requested columns are read, into plain maps instead of entities
+    public List<Map<String, Object>> findFields(PersonFields fields, Specification<Person> where, Sort sort,
+            int limit) {
+        return repository.findFields(fields, where, sort, pageLimit(limit));
+    }
+
+    // A page of the search endpoints, keyset positions are part of the specification
+    public List<Person> findPage(Specification<Person> where, Sort sort, int limit) {
+        int max = pageLimit(limit).max();
+        return repository.findBy(where, fluent -> fluent.sortBy(sort).limit(max).all());
+    }
+
+    // Any combination of filters, one sort and a limit in a single statement
+    public List<Person> query(PersonQuery query, Sort sort, int limit) {
+        return findPage(query.toSpecification(), sort, limit);
+    }
+
+    public List<Map<String, Object>> query(PersonQuery query, Sort sort, int limit, PersonFields fields) {
+        return findFields(fields, query.toSpecification(), sort, limit);
     }
 
     // Basic CRUD operations
-    public List<Person> getAllPersons() {
-        return repository.findAll();
+    public List<Person> getPersons(long afterId, int limit) {
+        return repository.findByIdGreaterThanOrderByIdAsc(afterId, pageLimit(limit));
     }
 
+    // Cache misses are read from the primary (not read-only): a row from a lagging replica could be
+    // cached after the invalidation of the write that changed it and be served until it expires.
+    // A hit takes no connection at all.
+    @Transactional
     public Optional<Person> getPersonById(Long id) {
-        return repository.findById(id);
+        return cache.get(id, repository::findById);
     }
 
     public boolean existsById(Long id) {
         return repository.existsById(id);
     }
 
+    // A single INSERT, the unique email constraint rejects duplicates with a DataIntegrityViolationException
+    @Transactional
     public Person createPerson(@Valid Person person) {
-        return repository.save(person);
+        Person created = repository.saveAndFlush(person);
+        eventPublisher.publishEvent(PersonsChangedEvent.saved(List.of(created)));
+        return created;
     }
 
-    public Person updatePerson(@Valid Person person) {
+    // One UPDATE ... RETURNING, expectedVersions makes it conditional on any of them (none matches
+    // when it is empty). Only when no row matched does a second query tell a missing person apart
+    // from a concurrent modification.
+    @Transactional
+    public Person updatePerson(@Valid Person person, Collection<Long> expectedVersions) {
         if (person.getId() == null) {
             throw new IllegalArgumentException("Person ID cannot be null for update operation");
         }
-        return repository.save(person);
+        // A managed copy of the person would shadow the row returned by the native UPDATE
+        entityManager.flush();
+        entityManager.clear();
+        Optional<Person> updated = expectedVersions == null
+                ? repository.updateReturning(person.getId(), person.getName(), person.getEmail(), person.getAge())
+                : expectedVersions.isEmpty()
+                ? Optional.empty()
+                : repository.updateReturningIfVersion(person.getId(), expectedVersions,
+                        person.getName(), person.getEmail(), person.getAge());
+        Person result = updated.orElseThrow(() -> repository.existsById(person.getId())
+                ? new OptimisticLockingFailureException("Person " + person.getId() + " is not at version " + expectedVersions)
+                : new EntityNotFoundException("Person not found with id: " + person.getId()));
+        eventPublisher.publishEvent(PersonsChangedEvent.saved(List.of(result)));
+        return result;
     }
 
+    @Transactional
     public void deletePerson(Long id) {
         if (!repository.existsById(id)) {
             throw new EntityNotFoundException("Person not found with id: " + id);
         }
         repository.deleteById(id);
+        eventPublisher.publishEvent(PersonsChangedEvent.removed(List.of(id)));
     }
 
-    // Find by single field
-    public List<Person> findByName(String name) {
-        return repository.findByName(name);
-    }
-
+    // Cache misses are read from the primary, see getPersonById
+    @Transactional
     public Optional<Person> findByEmail(String email) {
-        return repository.findByEmail(email);
-    }
-
-    public List<Person> findByAge(int age) {
-        return repository.findByAge(age);
-    }
-
-    // Find by field containing/like
-    public List<Person> searchByNameContaining(String nameKeyword) {
-        return repository.findByNameContainingIgnoreCase(nameKeyword);
-    }
-
-    public List<Person> searchByEmailContaining(String emailKeyword) {
-        return repository.findByEmailContainingIgnoreCase(emailKeyword);
-    }
-
-    // Find by multiple fields
-    public List<Person> findByNameAndAge(String name, int age) {
-        return repository.findByNameAndAge(name, age);
-    }
-
-    public List<Person> findByNameOrEmail(String name, String email) {
-        return repository.findByNameOrEmail(name, email);
+        return cache.getByEmail(email, () -> repository.findByEmail(email));
     }
 
     // Find with ordering
-    public List<Person> findByAgeOrderedByName(int age) {
-        return repository.findByAgeOrderByNameAsc(age);
-    }
-
-    public List<Person> findByNameOrderedByAgeDesc(String name) {
-        return repository.findByNameOrderByAgeDesc(name);
-    }
-
-    // Find with age comparisons
-    public List<Person> findPeopleOlderThan(int age) {
-        return repository.findByAgeGreaterThan(age);
-    }
-
-    public List<Person> findPeopleYoungerThan(int age) {
-        return repository.findByAgeLessThan(age);
-    }
-
-    public List<Person> findPeopleByAgeBetween(int startAge, int endAge) {
-        return repository.findByAgeBetween(startAge, endAge);
+    public List<Person> findByAgeOrderedByName(int age, PersonCursor after, int limit) {
+        if (after == null) {
+            return repository.findByAgeOrderByNameAscIdAsc(age, pageLimit(limit));
+        }
+        return repository.findByAgeOrderByNameAscAfter(age, after.name(), after.id(), pageLimit(limit));
     }
 
     // Exists checks
     public boolean doesEmailExist(String email) {
-        return repository.existsByEmail(email);
+        return emailFilter.exists(email, repository::existsByEmail);
     }
 
     public boolean doesPersonExistWithNameAndAge(String name, int age) {
@@ -111,7 +172,21 @@ public class PersonService {
 
     // Count operations
     public long countPeopleByAge(int age) {
-        return repository.countByAge(age);
+        return ageIndex.count(age, age).orElseGet(() -> repository.countByAge(age));
+    }
+
+    // Without a name or email filter the histogram comes from the in-memory age index, otherwise from
+    // a single GROUP BY age query. Null or empty name and email do not filter.
+    public PersonAgeStatistics getAgeStatistics(String name, String email, int minAge, int maxAge) {
+        boolean filtered = (name != null && !name.isEmpty()) || (email != null && !email.isEmpty());
+        Optional<SortedMap<Integer, Long>> indexed = filtered ? Optional.empty() : ageIndex.histogram(minAge, maxAge);
+        SortedMap<Integer, Long> histogram = indexed.orElseGet(() -> {
+            SortedMap<Integer, Long> counts = new TreeMap<>();
+            repository.countByAgeGroups(name == null ? "" : name, email == null ? "" : email, minAge, maxAge)
+                    .forEach(group -> counts.put(group.getAge(), group.getCount()));
+            return counts;
+        });
+        return PersonAgeStatistics.of(histogram);
     }
 
     public long countPeopleWithNameContaining(String namePattern) {
@@ -120,31 +195,55 @@ public class PersonService {
 
     // Delete operations
     @Transactional
-    public void deleteByEmail(String email) {
-        repository.deleteByEmail(email);
+    public int deleteByEmail(String email) {
+        return removed(repository.deleteByEmail(email));
     }
 
     @Transactional
-    public void deleteByNameAndAge(String name, int age) {
-        repository.deleteByNameAndAge(name, age);
+    public int deleteByNameAndAge(String name, int age) {
+        return removed(repository.deleteByNameAndAge(name, age));
     }
 
-    // Custom query methods
-    public List<Person> findPeopleInAgeRange(int minAge, int maxAge) {
-        return repository.findPeopleInAgeRange(minAge, maxAge);
-    }
-
-    public List<Person> searchByNameOrEmailKeyword(String keyword) {
-        return repository.searchByNameOrEmailKeyword(keyword);
+    // The native deletes bypass the persistence context, managed copies of the rows are stale now
+    private int removed(List<Long> ids) {
+        entityManager.clear();
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(PersonsChangedEvent.removed(ids));
+        }
+        return ids.size();
+    }
+
+    // Every word of the keyword has to match a word of the name or email. The last one may be
+    // incomplete (search as you type), prefixes that short would match most of the table are not.
+    // Every match is ranked, a page continues after the (rank, id) of the last row of the previous one.
+    public List<PersonSearchHit> searchRanked(String keyword, PersonRankCursor after, int limit) {
+        List<String> terms = new ArrayList<>(SEARCH_TERM.matcher(keyword.toLowerCase(Locale.ROOT)).results()
+                .map(MatchResult::group)
+                .toList());
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Keyword must contain a letter or digit");
+        }
+        String last = terms.get(terms.size() - 1);
+        if (last.length() >= MIN_PREFIX_LENGTH) {
+            terms.set(terms.size() - 1, last + ":*");
+        }
+        String query = String.join(" & ", terms);
+        int max = pageLimit(limit).max();
+        return after == null
+                ? repository.searchRanked(query, max)
+                : repository.searchRankedAfter(query, after.rank(), after.id(), max);
     }
 
+    // Answered from memory, outside a transaction so a reload of the tracker gets its own on the primary
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Person> findOldestPeople() {
-        return repository.findOldestPeople();
+        return oldestTracker.oldest().orElseGet(repository::findOldestPeople);
     }
 
     // Limited results
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Person> findTop3OldestPeople() {
-        return repository.findTop3ByOrderByAgeDesc();
+        return oldestTracker.top(3);
     }
 
     public List<Person> findFirst5ByNameContainingOrderedByAge(String name) {
@@ -152,19 +251,107 @@ public class PersonService {
     }
 
     // Batch operations
+    // Ids come from the pooled sequence, so inserts are sent as JDBC batches on every flush, one
+    // flush per hibernate.jdbc.batch_size persons. Clearing after each batch keeps the persistence
+    // context from growing with the request.
     @Transactional
     public List<Person> saveAll(List<Person> people) {
-        return repository.saveAll(people);
+        List<Person> saved = new ArrayList<>(people.size());
+        for (int from = 0; from < people.size(); from += insertBatchSize) {
+            int to = Math.min(from + insertBatchSize, people.size());
+            saved.addAll(repository.saveAll(people.subList(from, to)));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        eventPublisher.publishEvent(PersonsChangedEvent.saved(saved));
+        return saved;
+    }
+
+    // One existence query and one bulk delete per chunk of ids, nothing is deleted if any id is missing
+    @Transactional
+    public int deleteAll(List<Person> people) {
+        List<Long> ids = people.stream().map(Person::getId).distinct().toList();
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Person ID cannot be null for delete operation");
+        }
+        LinkedHashSet<Long> missing = new LinkedHashSet<>(ids);
+        for (List<Long> chunk : chunks(ids)) {
+            repository.findExistingIds(chunk).forEach(missing::remove);
+        }
+        if (!missing.isEmpty()) {
+            throw new PersonsNotFoundException(missing);
+        }
+        for (List<Long> chunk : chunks(ids)) {
+            repository.deleteAllByIdInBatch(chunk);
+        }
+        eventPublisher.publishEvent(PersonsChangedEvent.removed(ids));
+        return ids.size();
     }
 
+    // Multi-get by ids and emails. Cached persons are served from the cache, emails the Bloom filter
+    // rules out are never queried, everything else is read with chunked IN queries. Persons come
+    // back in request order, ids first, and misses are reported rather than thrown. Cache misses are
+    // read from the primary, see getPersonById.
     @Transactional
-    public void deleteAll(List<Person> people) {
-        for (Person person : people) {
-            if (!repository.existsById(person.getId())) {
-                throw new EntityNotFoundException("Person not found with id: " + person.getId());
+    public PersonLookupResult lookup(List<Long> ids, List<String> emails) {
+        if (ids.size() + emails.size() > MAX_LOOKUP_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_LOOKUP_SIZE + " ids and emails per lookup");
+        }
+        if (ids.stream().anyMatch(Objects::isNull) || emails.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Ids and emails must not be null");
+        }
+        Map<Long, Person> byId = cache.getAll(ids.stream().distinct().toList(), missing -> {
+            List<Person> found = new ArrayList<>();
+            chunks(missing).forEach(chunk -> found.addAll(repository.findAllById(chunk)));
+            return found;
+        });
+        Map<String, Person> byEmail = emailFilter.findExisting(emails.stream().distinct().toList(),
+                candidates -> cache.getAllByEmail(candidates, missing -> {
+                    List<Person> found = new ArrayList<>();
+                    chunks(missing).forEach(chunk -> found.addAll(repository.findByEmailIn(chunk)));
+                    return found;
+                }));
+        List<Person> persons = new ArrayList<>(byId.size() + byEmail.size());
+        List<Long> missingIds = new ArrayList<>();
+        List<String> missingEmails = new ArrayList<>();
+        for (Long id : ids) {
+            Person person = byId.get(id);
+            if (person != null) {
+                persons.add(person);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        for (String email : emails) {
+            Person person = byEmail.get(email);
+            if (person != null) {
+                persons.add(person);
+            } else {
+                missingEmails.add(email);
             }
         }
-        repository.deleteAll(people);
+        return new PersonLookupResult(persons, missingIds, missingEmails);
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += ID_CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + ID_CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    // Export, detaching every row once it is handed out keeps the persistence context empty
+    public long exportAll(Consumer<Person> sink) {
+        long exported = 0;
+        try (Stream<Person> people = repository.streamAll()) {
+            for (Person person : (Iterable<Person>) people::iterator) {
+                sink.accept(person);
+                entityManager.detach(person);
+                exported++;
+            }
+        }
+        return exported;
     }
 
     // Additional utility methods
@@ -187,12 +374,54 @@ public class PersonService {
                 !doesEmailExist(person.getEmail());
     }
 
+    private static Limit pageLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Limit.of(Math.min(limit, MAX_PAGE_SIZE));
+    }
+
     public long getTotalCount() {
         return repository.count();
     }
 
+    // TRUNCATE skips the per-row work of DELETE but takes an exclusive lock, so it is opt-in
     @Transactional
-    public void deleteAllPersons() {
-        repository.deleteAll();
+    public long deleteAllPersons() {
+        eventPublisher.publishEvent(PersonsChangedEvent.reload());
+        if (!truncateOnDeleteAll) {
+            return repository.deleteAllInBulk();
+        }
+        repository.lockTable();
+        long count = repository.count();
+        repository.truncate();
+        return count;
+    }
+
+    public PersonCacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    public PersonEmailFilterStats getEmailFilterStats() {
+        return emailFilter.stats();
+    }
+
+    // Outside the read-only transaction, the filter scans the primary in a transaction of its own
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PersonEmailFilterStats rebuildEmailFilter() {
+        return emailFilter.rebuild();
+    }
+
+    // Empty while the autocomplete index is loading or over its memory budget
+    public Optional<List<PersonNameSuggestion>> suggestNames(String prefix, int limit) {
+        return nameIndex.suggest(prefix, limit);
+    }
+
+    public PersonNameIndexStats getNameIndexStats() {
+        return nameIndex.stats();
+    }
+
+    public PersonAgeIndexStats getAgeIndexStats() {
+        return ageIndex.stats();
     }
 }
\ No newline at end of file
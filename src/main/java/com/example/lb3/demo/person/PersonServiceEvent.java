@@ -0,0 +1,36 @@
+package com.example.lb3.demo.person;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.lb3.demo.PersonServiceCall")
+@Label("Person Service Call")
+@Category({"Demo", "Persons"})
+@Description("A call of a PersonService method, emitted by PersonServiceEvents")
+@StackTrace(false)
+class PersonServiceEvent extends Event {
+    @Label("Method")
+    String method;
+
+    @Label("Arguments")
+    @Description("Types and sizes of the arguments, numbers as they are, never the content of strings")
+    String arguments;
+
+    @Label("Rows")
+    @Description("Persons or rows returned, -1 when the result is not a row set")
+    long rows;
+
+    @Label("SQL Statements")
+    @Description("Statements executed during the call, -1 outside of a request")
+    long statements;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Exception")
+    String exception;
+}
\ No newline at end of file
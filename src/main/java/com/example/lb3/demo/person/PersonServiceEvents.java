@@ -0,0 +1,99 @@
+package com.example.lb3.demo.person;
+
+import com.example.lb3.demo.config.SqlStatistics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+// Emits a PersonServiceEvent for every PersonService call while a flight recording has the event
+// enabled, otherwise the call goes straight through. Outermost, so the duration includes the commit.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "app.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PersonServiceEvents {
+
+    @Around("execution(public * com.example.lb3.demo.person.PersonService.*(..))")
+    public Object record(ProceedingJoinPoint call) throws Throwable {
+        PersonServiceEvent event = new PersonServiceEvent();
+        if (!event.isEnabled()) {
+            return call.proceed();
+        }
+        long statementsBefore = statements();
+        event.begin();
+        try {
+            Object result = call.proceed();
+            event.rows = rows(result);
+            return result;
+        } catch (Throwable e) {
+            event.exception = e.getClass().getName();
+            event.rows = -1;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = call.getSignature().getName();
+                event.arguments = shape(call.getArgs());
+                event.statements = statementsBefore < 0 ? -1 : statements() - statementsBefore;
+                event.endpoint = endpoint();
+                event.commit();
+            }
+        }
+    }
+
+    static String shape(Object[] arguments) {
+        StringJoiner shape = new StringJoiner(", ");
+        for (Object argument : arguments) {
+            shape.add(switch (argument) {
+                case null -> "null";
+                case Number number -> number.toString();
+                case Boolean bool -> bool.toString();
+                case CharSequence text -> "String(" + text.length() + ")";
+                case List<?> list -> "List[" + list.size() + "]";
+                case Collection<?> collection -> "Collection[" + collection.size() + "]";
+                case Map<?, ?> map -> "Map[" + map.size() + "]";
+                default -> argument.getClass().getSimpleName();
+            });
+        }
+        return shape.toString();
+    }
+
+    static long rows(Object result) {
+        return switch (result) {
+            case Collection<?> collection -> collection.size();
+            case Map<?, ?> map -> map.size();
+            case Optional<?> optional -> optional.isPresent() ? 1 : 0;
+            case Person person -> 1;
+            case PersonLookupResult lookup -> lookup.persons().size();
+            case null, default -> -1;
+        };
+    }
+
+    private static long statements() {
+        return SqlStatistics.current().map(SqlStatistics::getStatements).orElse(-1L);
+    }
+
+    // Method and URI template of the request being served, null for calls outside of one
+    private static String endpoint() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern == null ? request.getRequestURI() : pattern);
+    }
+}
\ No newline at end of file
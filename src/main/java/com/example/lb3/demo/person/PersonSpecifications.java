@@ -0,0 +1,81 @@
+package com.example.lb3.demo.person;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
+
+// Criteria counterparts of the PersonRepository queries, for reads that select only some columns
+public final class PersonSpecifications {
+    private PersonSpecifications() {
+    }
+
+    public static Specification<Person> idGreaterThan(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    public static Specification<Person> nameEquals(String name) {
+        return (root, query, cb) -> cb.equal(root.get("name"), name);
+    }
+
+    public static Specification<Person> emailEquals(String email) {
+        return (root, query, cb) -> cb.equal(root.get("email"), email);
+    }
+
+    public static Specification<Person> ageBetween(int minAge, int maxAge) {
+        return (root, query, cb) -> cb.between(root.get("age"), minAge, maxAge);
+    }
+
+    public static Specification<Person> ageAtLeast(int age) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("age"), age);
+    }
+
+    public static Specification<Person> ageAtMost(int age) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("age"), age);
+    }
+
+    public static Specification<Person> ageGreaterThan(int age) {
+        return (root, query, cb) -> cb.greaterThan(root.get("age"), age);
+    }
+
+    public static Specification<Person> ageLessThan(int age) {
+        return (root, query, cb) -> cb.lessThan(root.get("age"), age);
+    }
+
+    // lower(column) LIKE '%keyword%' with the wildcards in the keyword escaped, like the native queries
+    public static Specification<Person> nameContainsIgnoreCase(String keyword) {
+        return containsIgnoreCase("name", keyword);
+    }
+
+    public static Specification<Person> emailContainsIgnoreCase(String keyword) {
+        return containsIgnoreCase("email", keyword);
+    }
+
+    // Keyset position of the age/name ordered search
+    public static Specification<Person> nameAndIdAfter(String name, long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("name"), name),
+                cb.and(cb.equal(root.get("name"), name), cb.greaterThan(root.get("id"), id)));
+    }
+
+    // Keyset positions of the age ordered searches, ages ascending or descending and ids ascending.
+    // The bound on the age alone lets the (age, id) index skip the ages before the position.
+    public static Specification<Person> ageAndIdAfter(int age, long id) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("age"), age),
+                cb.or(cb.greaterThan(root.get("age"), age), cb.greaterThan(root.get("id"), id)));
+    }
+
+    public static Specification<Person> ageDescendingAndIdAfter(int age, long id) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("age"), age),
+                cb.or(cb.lessThan(root.get("age"), age), cb.greaterThan(root.get("id"), id)));
+    }
+
+    private static Specification<Person> containsIgnoreCase(String property, String keyword) {
+        String pattern = "%" + keyword.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get(property)), pattern, '\\');
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.lb3.demo.person;
+
+import java.util.Collection;
+import java.util.List;
+
+// Published by every write path so in-memory views of the person table can follow it. saved holds the
+// committed state of inserted or updated persons. reloadRequired marks changes too large to enumerate
+// (bulk import, delete all), after which views have to rebuild from the table.
+public record PersonsChangedEvent(List<Person> saved, Collection<Long> removedIds, boolean reloadRequired) {
+
+    public static PersonsChangedEvent saved(List<Person> people) {
+        return new PersonsChangedEvent(List.copyOf(people), List.of(), false);
+    }
+
+    public static PersonsChangedEvent removed(Collection<Long> ids) {
+        return new PersonsChangedEvent(List.of(), List.copyOf(ids), false);
+    }
+
+    public static PersonsChangedEvent reload() {
+        return new PersonsChangedEvent(List.of(), List.of(), true);
+    }
+}
\ No newline at end of file
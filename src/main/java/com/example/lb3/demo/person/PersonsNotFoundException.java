@@ -0,0 +1,19 @@
+package com.example.lb3.demo.person;
+
+import jakarta.persistence.EntityNotFoundException;
+
+import java.util.Collection;
+import java.util.List;
+
+public class PersonsNotFoundException extends EntityNotFoundException {
+    private final List<Long> missingIds;
+
+    public PersonsNotFoundException(Collection<Long> missingIds) {
+        super("Persons not found with ids: " + missingIds);
+        this.missingIds = List.copyOf(missingIds);
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,271 @@
+package com.example.lb3.demo.person;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+// Immutable prefix index over person names held in a handful of primitive arrays. Names are stored
+// once as UTF-8, next to their normalized form. Every word start of a normalized name is an entry,
+// entries are sorted by the normalized text from that word on, so a prefix is one binary search
+// followed by a sequential walk. Unsigned byte order of UTF-8 equals code point order. The version
+// of every person is kept, found by id through a permutation sorted by id.
+final class SortedNameArrays {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Object header plus length of each of the nine arrays
+    private static final long ARRAY_OVERHEAD = 9 * 16;
+
+    static final SortedNameArrays EMPTY = new Builder(Long.MAX_VALUE).build();
+
+    private final long[] ids;
+    private final long[] versions;
+    private final int[] personsById;
+    private final byte[] names;
+    private final int[] nameOffsets;
+    private final byte[] keys;
+    private final int[] keyOffsets;
+    private final int[] entryPositions;
+    private final int[] entryPersons;
+
+    private SortedNameArrays(long[] ids, long[] versions, int[] personsById, byte[] names, int[] nameOffsets,
+            byte[] keys, int[] keyOffsets, int[] entryPositions, int[] entryPersons) {
+        this.ids = ids;
+        this.versions = versions;
+        this.personsById = personsById;
+        this.names = names;
+        this.nameOffsets = nameOffsets;
+        this.keys = keys;
+        this.keyOffsets = keyOffsets;
+        this.entryPositions = entryPositions;
+        this.entryPersons = entryPersons;
+    }
+
+    // Lowercase, without accents, words separated by single spaces
+    static String normalize(String name) {
+        String decomposed = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // The normalized name from each of its word starts on
+    static List<String> suffixes(String normalized) {
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return IntStream.range(0, normalized.length())
+                .filter(i -> i == 0 || normalized.charAt(i - 1) == ' ')
+                .mapToObj(normalized::substring)
+                .toList();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    int entryCount() {
+        return entryPositions.length;
+    }
+
+    long estimatedBytes() {
+        return ARRAY_OVERHEAD + 8L * ids.length + 8L * versions.length + 4L * personsById.length + names.length + 4L * nameOffsets.length + keys.length
+                + 4L * keyOffsets.length + 4L * entryPositions.length + 4L * entryPersons.length;
+    }
+
+    long id(int person) {
+        return ids[person];
+    }
+
+    long version(int person) {
+        return versions[person];
+    }
+
+    // -1 when the id is not in the index
+    long versionOf(long id) {
+        int low = 0;
+        int high = personsById.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long candidate = ids[personsById[middle]];
+            if (candidate < id) {
+                low = middle + 1;
+            } else if (candidate > id) {
+                high = middle - 1;
+            } else {
+                return versions[personsById[middle]];
+            }
+        }
+        return -1;
+    }
+
+    String name(int person) {
+        return new String(names, nameOffsets[person], nameOffsets[person + 1] - nameOffsets[person], StandardCharsets.UTF_8);
+    }
+
+    // Calls the visitor with the suffix key and person of every entry starting with prefix, in key
+    // order, until it returns false. Persons rejected by skip are not visited.
+    void visit(String prefix, LongPredicate skip, EntryVisitor visitor) {
+        byte[] target = prefix.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = entryPositions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, target) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int entry = low; entry < entryPositions.length && startsWith(entry, target); entry++) {
+            int person = entryPersons[entry];
+            if (skip.test(ids[person])) {
+                continue;
+            }
+            int start = entryPositions[entry];
+            String key = new String(keys, start, keyOffsets[person + 1] - start, StandardCharsets.UTF_8);
+            if (!visitor.visit(key, person)) {
+                return;
+            }
+        }
+    }
+
+    private int compare(int entry, byte[] target) {
+        int start = entryPositions[entry];
+        int end = keyOffsets[entryPersons[entry] + 1];
+        return Arrays.compareUnsigned(keys, start, end, target, 0, target.length);
+    }
+
+    private boolean startsWith(int entry, byte[] prefix) {
+        int start = entryPositions[entry];
+        int end = keyOffsets[entryPersons[entry] + 1];
+        return end - start >= prefix.length
+                && Arrays.equals(keys, start, start + prefix.length, prefix, 0, prefix.length);
+    }
+
+    @FunctionalInterface
+    interface EntryVisitor {
+        boolean visit(String key, int person);
+    }
+
+    static class BudgetExceededException extends RuntimeException {
+        BudgetExceededException(long maxBytes) {
+            super("Name index exceeds its memory budget of " + maxBytes + " bytes");
+        }
+    }
+
+    // Collects names into growing arrays and fails as soon as the finished index would not fit
+    // into maxBytes
+    static final class Builder {
+        private final long maxBytes;
+        private long[] ids = new long[1024];
+        private long[] versions = new long[1024];
+        private byte[] names = new byte[16 * 1024];
+        private int[] nameOffsets = new int[1025];
+        private byte[] keys = new byte[16 * 1024];
+        private int[] keyOffsets = new int[1025];
+        private int[] wordStarts = new int[2048];
+        private int size;
+        private int namesLength;
+        private int keysLength;
+        private int entries;
+
+        Builder(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        Builder add(long id, String name, long version) {
+            String normalized = normalize(name);
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            byte[] keyBytes = normalized.getBytes(StandardCharsets.UTF_8);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                versions = Arrays.copyOf(versions, size * 2);
+                nameOffsets = Arrays.copyOf(nameOffsets, size * 2 + 1);
+                keyOffsets = Arrays.copyOf(keyOffsets, size * 2 + 1);
+            }
+            names = ensureCapacity(names, namesLength + nameBytes.length);
+            keys = ensureCapacity(keys, keysLength + keyBytes.length);
+            System.arraycopy(nameBytes, 0, names, namesLength, nameBytes.length);
+            for (int i = 0; i < keyBytes.length; i++) {
+                if (i == 0 || keyBytes[i - 1] == ' ') {
+                    if (entries == wordStarts.length) {
+                        wordStarts = Arrays.copyOf(wordStarts, entries * 2);
+                    }
+                    wordStarts[entries++] = keysLength + i;
+                }
+            }
+            System.arraycopy(keyBytes, 0, keys, keysLength, keyBytes.length);
+            ids[size] = id;
+            versions[size] = version;
+            namesLength += nameBytes.length;
+            keysLength += keyBytes.length;
+            size++;
+            nameOffsets[size] = namesLength;
+            keyOffsets[size] = keysLength;
+            if (estimatedBytes() > maxBytes) {
+                throw new BudgetExceededException(maxBytes);
+            }
+            return this;
+        }
+
+        SortedNameArrays build() {
+            int[] entryPersons = new int[entries];
+            for (int person = 0, entry = 0; entry < entries; entry++) {
+                while (wordStarts[entry] >= keyOffsets[person + 1]) {
+                    person++;
+                }
+                entryPersons[entry] = person;
+            }
+            byte[] finalKeys = Arrays.copyOf(keys, keysLength);
+            int[] finalKeyOffsets = Arrays.copyOf(keyOffsets, size + 1);
+            int[] order = new int[entries];
+            Arrays.setAll(order, entry -> entry);
+            sort(order, new int[entries], 0, entries, (a, b) -> Arrays.compareUnsigned(
+                    finalKeys, wordStarts[a], finalKeyOffsets[entryPersons[a] + 1],
+                    finalKeys, wordStarts[b], finalKeyOffsets[entryPersons[b] + 1]));
+            int[] sortedPositions = new int[entries];
+            int[] sortedPersons = new int[entries];
+            for (int i = 0; i < entries; i++) {
+                sortedPositions[i] = wordStarts[order[i]];
+                sortedPersons[i] = entryPersons[order[i]];
+            }
+            int[] personsById = new int[size];
+            Arrays.setAll(personsById, person -> person);
+            sort(personsById, new int[size], 0, size, (a, b) -> Long.compare(ids[a], ids[b]));
+            return new SortedNameArrays(Arrays.copyOf(ids, size), Arrays.copyOf(versions, size), personsById,
+                    Arrays.copyOf(names, namesLength), Arrays.copyOf(nameOffsets, size + 1), finalKeys, finalKeyOffsets,
+                    sortedPositions, sortedPersons);
+        }
+
+        // Stable merge sort of entry or person numbers, an int[] sorted through a boxed comparator would cost
+        // an Integer per entry
+        private static void sort(int[] order, int[] buffer, int from, int to, IntBinaryOperator comparator) {
+            if (to - from < 2) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            sort(order, buffer, from, middle, comparator);
+            sort(order, buffer, middle, to, comparator);
+            if (comparator.applyAsInt(order[middle - 1], order[middle]) <= 0) {
+                return;
+            }
+            System.arraycopy(order, from, buffer, from, to - from);
+            for (int i = from, left = from, right = middle; i < to; i++) {
+                order[i] = right == to || (left < middle && comparator.applyAsInt(buffer[left], buffer[right]) <= 0)
+                        ? buffer[left++] : buffer[right++];
+            }
+        }
+
+        private long estimatedBytes() {
+            return ARRAY_OVERHEAD + 8L * size + 8L * size + 4L * size + namesLength + 4L * (size + 1) + keysLength + 4L * (size + 1) + 8L * entries;
+        }
+
+        private static byte[] ensureCapacity(byte[] array, int length) {
+            return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+        }
+    }
+}
\ No newline at end of file
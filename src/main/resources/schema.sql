@@ -0,0 +1,18 @@
+-- Person ids used to come from an identity column, move the pooled sequence past them once
+SELECT setval('person_seq', (SELECT MAX(id) FROM person))
+WHERE (SELECT MAX(id) FROM person) > (SELECT last_value FROM person_seq);
+
+-- Hibernate skips the initial value of a fresh sequence, set-based inserts rely on that having happened
+SELECT nextval('person_seq') WHERE NOT (SELECT is_called FROM person_seq);
+
+-- Trigram indexes serve the case-insensitive substring searches, which match against lower(column)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS person_name_trgm_idx ON person USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS person_email_trgm_idx ON person USING gin (lower(email) gin_trgm_ops);
+
+-- Keyword search, words of the name rank above the words of the email address
+ALTER TABLE person ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A')
+    || setweight(to_tsvector('simple', coalesce(regexp_replace(email, '[^[:alnum:]]+', ' ', 'g'), '')), 'B')
+) STORED;
+CREATE INDEX IF NOT EXISTS person_search_vector_idx ON person USING gin (search_vector);
\ No newline at end of file
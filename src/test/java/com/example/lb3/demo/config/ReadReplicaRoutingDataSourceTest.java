@@ -0,0 +1,63 @@
+package com.example.lb3.demo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReadReplicaRoutingDataSourceTest {
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final ReplicaLagMonitor lagMonitor = mock(ReplicaLagMonitor.class);
+    private final ReadReplicaRoutingDataSource dataSource =
+            new ReadReplicaRoutingDataSource(primary, replica, lagMonitor);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesReplica() throws SQLException {
+        // Arrange
+        Connection replicaConnection = mock(Connection.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertSame(replicaConnection, dataSource.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void testReadWriteTransactionUsesPrimary() throws SQLException {
+        // Arrange
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+
+        // Act & Assert
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() throws SQLException {
+        // Arrange
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(lagMonitor.isReplicaUsable()).thenReturn(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(replica);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.lb3.demo.config;
+
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Round-trip budgets for tests: the action runs on the calling thread and fails the test when it
+// executed more JDBC statements than allowed. Pending writes have to be flushed inside the action.
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static <T> T assertMaxStatements(int max, ThrowingSupplier<T> action) {
+        SqlStatistics statistics = SqlStatistics.start();
+        T result;
+        try {
+            result = action.get();
+        } catch (Throwable e) {
+            return fail(e);
+        } finally {
+            SqlStatistics.stop();
+        }
+        if (statistics.getStatements() > max) {
+            fail("Expected at most " + max + " SQL statements but " + statistics.getStatements() + " were executed");
+        }
+        return result;
+    }
+
+    public static void assertMaxStatements(int max, Executable action) {
+        assertMaxStatements(max, () -> {
+            action.execute();
+            return null;
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void testAddedValuesAreAlwaysFound() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("person" + i + "@example.com");
+        }
+
+        // Assert
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("person" + i + "@example.com"));
+        }
+        assertEquals(10_000, filter.insertions());
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTarget() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("person" + i + "@example.com");
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    void testEmptyFilterContainsNothing() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        // Act & Assert
+        assertFalse(filter.mightContain("john@example.com"));
+        assertEquals(0, filter.expectedFalsePositiveRate());
+    }
+}
\ No newline at end of file
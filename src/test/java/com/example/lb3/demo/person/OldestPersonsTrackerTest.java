@@ -0,0 +1,143 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OldestPersonsTrackerTest {
+    private final PersonRepository repository = mock(PersonRepository.class);
+    private final OldestPersonsTracker tracker = new OldestPersonsTracker(repository, mock(PlatformTransactionManager.class), 4);
+
+    @Test
+    void testLoadsLazilyAndAnswersFromMemory() {
+        // Arrange
+        table(person(1, 90), person(2, 90), person(3, 80), person(4, 70));
+
+        // Act
+        List<Person> oldest = tracker.oldest().orElseThrow();
+        List<Person> top = tracker.top(3);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), ids(oldest));
+        assertEquals(List.of(1L, 2L, 3L), ids(top));
+        assertEquals(1, tracker.getReloads());
+    }
+
+    @Test
+    void testWritesKeepTheRankingWithoutReloading() {
+        // Arrange
+        table(person(1, 90), person(2, 90), person(3, 80), person(4, 70));
+        tracker.top(3);
+
+        // Act
+        tracker.onPersonsChanged(PersonsChangedEvent.saved(List.of(person(5, 95), person(2, 60), person(6, 85))));
+
+        // Assert
+        assertEquals(List.of(5L), ids(tracker.oldest().orElseThrow()));
+        assertEquals(List.of(5L, 1L, 6L), ids(tracker.top(3)));
+        assertEquals(1, tracker.getReloads());
+    }
+
+    @Test
+    void testDeletingLeadersReloadsOnlyWhenTooFewAreLeft() {
+        // Arrange
+        table(person(1, 90), person(2, 90), person(3, 80), person(4, 70));
+        tracker.top(3);
+        tracker.onPersonsChanged(PersonsChangedEvent.saved(List.of(person(7, 75))));
+
+        // Act
+        tracker.onPersonsChanged(PersonsChangedEvent.removed(List.of(1L)));
+        List<Person> afterFirstDelete = tracker.top(3);
+        tracker.onPersonsChanged(PersonsChangedEvent.removed(List.of(2L)));
+        table(person(3, 80), person(7, 75), person(4, 70));
+        List<Person> afterSecondDelete = tracker.top(3);
+
+        // Assert
+        assertEquals(List.of(2L, 3L, 7L), ids(afterFirstDelete));
+        assertEquals(List.of(3L, 7L, 4L), ids(afterSecondDelete));
+        assertEquals(2, tracker.getReloads());
+    }
+
+    @Test
+    void testOldestFallsBackWhenTheMaximumAgeFillsTheTracker() {
+        // Arrange
+        table(person(1, 90), person(2, 90), person(3, 90), person(4, 90));
+
+        // Act & Assert
+        assertTrue(tracker.oldest().isEmpty());
+        assertTrue(tracker.oldest().isEmpty());
+        assertEquals(List.of(1L, 2L, 3L), ids(tracker.top(3)));
+        assertEquals(1, tracker.getReloads());
+    }
+
+    @Test
+    void testOlderSaveThanTheLastAppliedVersionIsIgnored() {
+        // Arrange
+        table(person(1, 90), person(2, 90), person(3, 80), person(4, 70));
+        tracker.top(3);
+        tracker.onPersonsChanged(PersonsChangedEvent.saved(List.of(person(1, 50, 2), person(5, 60, 2))));
+
+        // Act
+        tracker.onPersonsChanged(PersonsChangedEvent.saved(List.of(person(1, 95, 1), person(5, 99, 1))));
+        tracker.onPersonsChanged(PersonsChangedEvent.removed(List.of(3L)));
+        tracker.onPersonsChanged(PersonsChangedEvent.saved(List.of(person(3, 85, 1))));
+
+        // Assert
+        assertEquals(List.of(2L, 4L), ids(tracker.top(2)));
+        assertEquals(1, tracker.getReloads());
+    }
+
+    @Test
+    void testOlderSaveThanAReloadedVersionIsIgnored() {
+        // Arrange
+        table(person(1, 90), person(2, 90), person(3, 80), person(4, 70, 2));
+        tracker.top(3);
+        tracker.onPersonsChanged(PersonsChangedEvent.saved(List.of(person(5, 95))));
+
+        // Act
+        tracker.onPersonsChanged(PersonsChangedEvent.saved(List.of(person(4, 99, 1))));
+
+        // Assert
+        assertEquals(List.of(5L, 1L, 2L, 3L), ids(tracker.top(4)));
+        assertEquals(1, tracker.getReloads());
+    }
+
+    @Test
+    void testOlderSaveThanAChangeMadeBeforeAReloadIsIgnored() {
+        // Arrange
+        table(person(1, 90), person(2, 90), person(3, 80), person(4, 70));
+        tracker.top(3);
+        tracker.onPersonsChanged(PersonsChangedEvent.reload());
+        tracker.onPersonsChanged(PersonsChangedEvent.saved(List.of(person(9, 30, 3))));
+        tracker.onPersonsChanged(PersonsChangedEvent.removed(List.of(8L)));
+        tracker.top(3);
+
+        // Act
+        tracker.onPersonsChanged(PersonsChangedEvent.saved(List.of(person(9, 99, 2), person(8, 98, 1))));
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), ids(tracker.top(3)));
+        assertEquals(2, tracker.getReloads());
+    }
+
+    private void table(Person... people) {
+        when(repository.findByOrderByAgeDescIdAsc(Limit.of(4))).thenReturn(List.of(people));
+    }
+
+    private static Person person(long id, int age) {
+        return person(id, age, 0);
+    }
+
+    private static Person person(long id, int age, long version) {
+        return Person.builder().id(id).name("Person " + id).email(id + "@example.com").age(age).version(version).build();
+    }
+
+    private static List<Long> ids(List<Person> people) {
+        return people.stream().map(Person::getId).toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PersonAgeIndexTest {
+    private final PersonRepository repository = mock(PersonRepository.class);
+    private final PersonAgeIndex index = new PersonAgeIndex(repository, mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void setUp() {
+        when(repository.streamAllAges()).thenReturn(Stream.of(
+                new PersonAge(3, 20, 0), new PersonAge(7, 20, 0), new PersonAge(1, 25, 0), new PersonAge(2, 30, 0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+    }
+
+    @Test
+    void testNothingIsAnsweredBeforeTheFirstBuild() {
+        // Act & Assert
+        assertTrue(index.count(20, 20).isEmpty());
+        assertTrue(index.histogram(0, 100).isEmpty());
+    }
+
+    @Test
+    void testCountsAndHistogramAfterBuild() {
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(2, index.count(20, 20).getAsLong());
+        assertEquals(2, index.count(21, Integer.MAX_VALUE).getAsLong());
+        assertEquals(0, index.count(30, 20).getAsLong());
+        assertEquals(Map.of(20, 2L, 25, 1L), index.histogram(0, 29).orElseThrow());
+    }
+
+    @Test
+    void testChangesMoveAndRemoveIds() {
+        // Arrange
+        index.rebuild();
+
+        // Act
+        index.onPersonsChanged(PersonsChangedEvent.saved(List.of(
+                Person.builder().id(3L).age(30).build(),
+                Person.builder().id(9L).age(20).build())));
+        index.onPersonsChanged(PersonsChangedEvent.removed(List.of(1L)));
+
+        // Assert
+        assertEquals(Map.of(20, 2L, 30, 2L), index.histogram(0, 100).orElseThrow());
+        assertEquals(2, index.stats().ages());
+    }
+
+    @Test
+    void testOneEventChangesManyIdsOfAGroup() {
+        // Arrange
+        index.rebuild();
+
+        // Act
+        index.onPersonsChanged(PersonsChangedEvent.saved(List.of(
+                Person.builder().id(8L).age(20).build(),
+                Person.builder().id(3L).age(25).build(),
+                Person.builder().id(4L).age(20).build(),
+                Person.builder().id(7L).age(20).version(1).build(),
+                Person.builder().id(2L).age(20).build())));
+
+        // Assert
+        assertEquals(Map.of(20, 4L, 25, 2L), index.histogram(0, 100).orElseThrow());
+    }
+
+    @Test
+    void testOlderSaveThanTheIndexedVersionIsIgnored() {
+        // Arrange
+        index.rebuild();
+        index.onPersonsChanged(PersonsChangedEvent.saved(List.of(Person.builder().id(3L).age(40).version(2).build())));
+
+        // Act
+        index.onPersonsChanged(PersonsChangedEvent.saved(List.of(Person.builder().id(3L).age(50).version(1).build())));
+
+        // Assert
+        assertEquals(1, index.count(40, 40).getAsLong());
+        assertEquals(0, index.count(50, 50).getAsLong());
+    }
+
+    @Test
+    void testSaveOlderThanADeleteIsIgnored() {
+        // Arrange
+        index.rebuild();
+        index.onPersonsChanged(PersonsChangedEvent.removed(List.of(3L)));
+
+        // Act
+        index.onPersonsChanged(PersonsChangedEvent.saved(List.of(Person.builder().id(3L).age(50).version(1).build())));
+
+        // Assert
+        assertEquals(Map.of(20, 1L, 25, 1L, 30, 1L), index.histogram(0, 100).orElseThrow());
+    }
+
+    @Test
+    void testSaveOlderThanADeleteIsIgnoredWhenReplayedOntoARebuild() {
+        // Arrange
+        when(repository.streamAllAges()).thenAnswer(invocation -> {
+            index.onPersonsChanged(PersonsChangedEvent.removed(List.of(3L)));
+            index.onPersonsChanged(PersonsChangedEvent.saved(List.of(Person.builder().id(3L).age(50).version(1).build())));
+            return Stream.of(new PersonAge(7, 20, 0), new PersonAge(1, 25, 0));
+        });
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(Map.of(20, 1L, 25, 1L), index.histogram(0, 100).orElseThrow());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonAgeStatisticsTest {
+    @Test
+    void testSummaryFromHistogram() {
+        // Arrange
+        TreeMap<Integer, Long> histogram = new TreeMap<>(Map.of(20, 5L, 30, 3L, 40, 2L));
+
+        // Act
+        PersonAgeStatistics statistics = PersonAgeStatistics.of(histogram);
+
+        // Assert
+        assertEquals(10, statistics.count());
+        assertEquals(20, statistics.min());
+        assertEquals(40, statistics.max());
+        assertEquals(27.0, statistics.mean(), 1e-9);
+        assertEquals(20, statistics.percentiles().get("p50"));
+        assertEquals(30, statistics.percentiles().get("p75"));
+        assertEquals(40, statistics.percentiles().get("p90"));
+        assertEquals(histogram, statistics.histogram());
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        // Act
+        PersonAgeStatistics statistics = PersonAgeStatistics.of(new TreeMap<>());
+
+        // Assert
+        assertEquals(0, statistics.count());
+        assertNull(statistics.min());
+        assertNull(statistics.mean());
+        assertTrue(statistics.percentiles().isEmpty());
+    }
+}
\ No newline at end of file
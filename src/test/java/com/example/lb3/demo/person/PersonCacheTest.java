@@ -0,0 +1,145 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonCacheTest {
+    private PersonCache cache;
+    private Person john;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PersonCache(100, Duration.ofMinutes(10));
+        john = Person.builder()
+                .id(1L)
+                .name("John Doe")
+                .email("john@example.com")
+                .age(25)
+                .version(0)
+                .build();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGetLoadsOnceAndReturnsCopies() {
+        // Act
+        Person first = cache.get(1L, this::load).orElseThrow();
+        first.setName("Changed");
+        Person second = cache.get(1L, this::load).orElseThrow();
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals("John Doe", second.getName());
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    void testGetByEmailUsesEntryCachedById() {
+        // Arrange
+        cache.get(1L, this::load);
+
+        // Act
+        Optional<Person> found = cache.getByEmail("john@example.com", () -> load(1L));
+
+        // Assert
+        assertTrue(found.isPresent());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().emailHitCount());
+    }
+
+    @Test
+    void testGetAllLoadsOnlyUncachedIdsInOneCall() {
+        // Arrange
+        cache.get(1L, this::load);
+        List<List<Long>> requested = new ArrayList<>();
+
+        // Act
+        Map<Long, Person> found = cache.getAll(List.of(1L, 2L, 3L), ids -> {
+            requested.add(ids);
+            return List.of(Person.builder().id(2L).name("Jane Doe").email("jane@example.com").build());
+        });
+        Map<String, Person> byEmail = cache.getAllByEmail(List.of("john@example.com", "jane@example.com"), emails -> {
+            requested.add(List.of());
+            return List.of();
+        });
+
+        // Assert
+        assertEquals(List.of(List.of(2L, 3L)), requested);
+        assertEquals(List.of(1L, 2L), found.keySet().stream().sorted().toList());
+        assertEquals(2, byEmail.size());
+        assertEquals(2, cache.stats().emailHitCount());
+    }
+
+    @Test
+    void testSavedEventReplacesEntryAndEmailMapping() {
+        // Arrange
+        cache.get(1L, this::load);
+        Person updated = Person.builder()
+                .id(1L)
+                .name("John Doe")
+                .email("johnny@example.com")
+                .age(26)
+                .version(1)
+                .build();
+
+        // Act
+        cache.onPersonsChanged(PersonsChangedEvent.saved(List.of(updated)));
+
+        // Assert
+        assertEquals(26, cache.get(1L, this::load).orElseThrow().getAge());
+        assertEquals(1, loads.get());
+        assertTrue(cache.getByEmail("johnny@example.com", Optional::empty).isPresent());
+        assertTrue(cache.getByEmail("john@example.com", Optional::empty).isEmpty());
+    }
+
+    @Test
+    void testSavedEventWithOlderVersionIsIgnored() {
+        // Arrange
+        john.setVersion(2);
+        cache.get(1L, this::load);
+        Person stale = Person.builder()
+                .id(1L)
+                .name("Stale")
+                .email("john@example.com")
+                .age(25)
+                .version(1)
+                .build();
+
+        // Act
+        cache.onPersonsChanged(PersonsChangedEvent.saved(List.of(stale)));
+
+        // Assert
+        assertEquals("John Doe", cache.get(1L, this::load).orElseThrow().getName());
+    }
+
+    @Test
+    void testRemovedAndReloadEventsEvict() {
+        // Arrange
+        cache.get(1L, this::load);
+
+        // Act
+        cache.onPersonsChanged(PersonsChangedEvent.removed(List.of(1L)));
+        cache.get(1L, this::load);
+        cache.onPersonsChanged(PersonsChangedEvent.reload());
+        cache.get(1L, this::load);
+
+        // Assert
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.stats().size());
+    }
+
+    private Optional<Person> load(Long id) {
+        loads.incrementAndGet();
+        return Optional.of(john);
+    }
+}
\ No newline at end of file
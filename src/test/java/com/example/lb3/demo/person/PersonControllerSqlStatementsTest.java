@@ -0,0 +1,121 @@
+package com.example.lb3.demo.person;
+
+import com.example.lb3.demo.config.SqlStatisticsFilter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Round trips per endpoint, read from the X-SQL-Statements header. A new query on one of these
+// paths has to raise its budget here.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@ActiveProfiles("test")
+class PersonControllerSqlStatementsTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Person testPerson;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+
+        testPerson = repository.save(Person.builder()
+                .name("John Doe")
+                .email("john@example.com")
+                .age(25)
+                .build());
+    }
+
+    @Test
+    void testReadsAreOneStatement() {
+        // Act
+        ResponseEntity<Person> byId = restTemplate.getForEntity("/api/persons/{id}", Person.class,
+                testPerson.getId());
+        ResponseEntity<String> search = restTemplate.getForEntity(
+                "/api/persons/search/name/containing?keyword=john", String.class);
+        ResponseEntity<String> page = restTemplate.getForEntity("/api/persons?limit=10", String.class);
+
+        // Assert
+        assertEquals(HttpStatus.OK, byId.getStatusCode());
+        assertMaxStatements(1, byId);
+        assertMaxStatements(1, search);
+        assertMaxStatements(1, page);
+    }
+
+    @Test
+    void testWritesStayWithinTheirBudget() {
+        // Arrange
+        Person newPerson = Person.builder().name("Jane Smith").email("jane@example.com").age(30).build();
+        Person updatedPerson = Person.builder().name("John Updated").email("john@example.com").age(26).build();
+        List<Person> batch = List.of(
+                Person.builder().name("Batch One").email("batch1@example.com").age(20).build(),
+                Person.builder().name("Batch Two").email("batch2@example.com").age(21).build());
+
+        // Act
+        ResponseEntity<Person> created = restTemplate.postForEntity("/api/persons", newPerson, Person.class);
+        ResponseEntity<Person> updated = restTemplate.exchange("/api/persons/{id}", HttpMethod.PUT,
+                new HttpEntity<>(updatedPerson), Person.class, testPerson.getId());
+        ResponseEntity<Person[]> batchCreated = restTemplate.postForEntity("/api/persons/batch", batch,
+                Person[].class);
+        ResponseEntity<String> batchDeleted = restTemplate.exchange("/api/persons/batch", HttpMethod.DELETE,
+                new HttpEntity<>(List.of(batchCreated.getBody())), String.class);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertEquals(HttpStatus.OK, batchDeleted.getStatusCode());
+        // Sequence value and INSERT
+        assertMaxStatements(2, created);
+        assertMaxStatements(1, updated);
+        assertMaxStatements(2, batchCreated);
+        // Existence check and DELETE per chunk of ids
+        assertMaxStatements(2, batchDeleted);
+    }
+
+    @Test
+    void testMetricsAreRecordedPerEndpointExceptForAsyncResponses() {
+        // Act
+        restTemplate.getForEntity("/api/persons/{id}", String.class, testPerson.getId());
+        ResponseEntity<String> export = restTemplate.getForEntity("/api/persons/export", String.class);
+
+        // Assert
+        assertEquals(HttpStatus.OK, export.getStatusCode());
+        DistributionSummary byId = registry.find("persons.sql.statements").tag("uri", "/api/persons/{id}").summary();
+        assertNotNull(byId);
+        assertTrue(byId.count() >= 1);
+        assertNull(registry.find("persons.sql.statements").tag("uri", "/api/persons/export").summary());
+    }
+
+    private static void assertMaxStatements(int max, ResponseEntity<?> response) {
+        String statements = response.getHeaders().getFirst(SqlStatisticsFilter.STATEMENTS_HEADER);
+        assertNotNull(statements);
+        assertTrue(Integer.parseInt(statements) <= max,
+                "Expected at most " + max + " SQL statements but " + statements + " were executed");
+    }
+}
\ No newline at end of file
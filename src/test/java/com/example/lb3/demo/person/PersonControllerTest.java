@@ -0,0 +1,34 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonControllerTest {
+    @Test
+    void testParseIfMatchSplitsTagLists() {
+        // Act & Assert
+        assertEquals(List.of(3L), PersonController.parseIfMatch("\"3\""));
+        assertEquals(List.of(3L, 4L), PersonController.parseIfMatch("\"3\", \"4\""));
+        assertEquals(List.of(3L, 4L), PersonController.parseIfMatch("\"3\",\"4\""));
+        assertNull(PersonController.parseIfMatch(" * "));
+        assertNull(PersonController.parseIfMatch(null));
+    }
+
+    @Test
+    void testParseIfMatchNeverMatchesWeakTags() {
+        // Act & Assert
+        assertEquals(List.of(), PersonController.parseIfMatch("W/\"3\""));
+        assertEquals(List.of(4L), PersonController.parseIfMatch("W/\"3\", \"4\""));
+    }
+
+    @Test
+    void testParseIfMatchRejectsMalformedTags() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> PersonController.parseIfMatch("3"));
+        assertThrows(IllegalArgumentException.class, () -> PersonController.parseIfMatch("\"three\""));
+        assertThrows(IllegalArgumentException.class, () -> PersonController.parseIfMatch("\"3\", \""));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// The scan is a mock that lets events arrive while a rebuild is running. Emails that may exist have
+// to reach the database check, only emails the filter rules out are answered without it.
+class PersonEmailFilterTest {
+    private PersonRepository repository;
+    private PersonEmailFilter emailFilter;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PersonRepository.class);
+        emailFilter = new PersonEmailFilter(repository, mock(PlatformTransactionManager.class), 0.01);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        emailFilter.close();
+    }
+
+    @Test
+    void testEmailSavedDuringTheScanIsPossiblyPresent() {
+        // Arrange
+        when(repository.streamAllEmails()).thenAnswer(invocation -> {
+            emailFilter.onPersonsChanged(PersonsChangedEvent.saved(List.of(person("new@example.com"))));
+            return Stream.of("john@example.com");
+        });
+
+        // Act
+        PersonEmailFilterStats stats = emailFilter.rebuild();
+
+        // Assert
+        assertTrue(stats.ready());
+        assertTrue(emailFilter.exists("new@example.com", email -> true));
+        assertTrue(emailFilter.exists("john@example.com", email -> true));
+    }
+
+    @Test
+    void testEmailOfAnUncommittedSaveIsPossiblyPresent() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        emailFilter.onPersonsChanged(PersonsChangedEvent.saved(List.of(person("new@example.com"))));
+        when(repository.streamAllEmails()).thenReturn(Stream.of("john@example.com"));
+
+        // Act
+        PersonEmailFilterStats stats = emailFilter.rebuild();
+
+        // Assert
+        assertTrue(stats.ready());
+        assertTrue(emailFilter.exists("new@example.com", email -> true));
+    }
+
+    @Test
+    void testReloadDuringTheScanKeepsTheRebuiltFilterOut() {
+        // Arrange
+        when(repository.streamAllEmails()).thenReturn(Stream.of("john@example.com"));
+        emailFilter.rebuild();
+        TransactionSynchronizationManager.initSynchronization();
+        when(repository.streamAllEmails()).thenAnswer(invocation -> {
+            emailFilter.onPersonsChanged(PersonsChangedEvent.reload());
+            return Stream.of("john@example.com");
+        });
+
+        // Act
+        PersonEmailFilterStats stats = emailFilter.rebuild();
+
+        // Assert
+        assertFalse(stats.ready());
+        assertTrue(emailFilter.exists("bulk@example.com", email -> true));
+        assertEquals(1, emailFilter.stats().bypassCount());
+    }
+
+    private static Person person(String email) {
+        return Person.builder().id(1L).name("John Doe").email(email).age(25).build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonFieldsTest {
+    @Test
+    void testParseAlwaysIncludesTheId() {
+        // Act
+        PersonFields fields = PersonFields.valueOf(" Email, name,,email");
+
+        // Assert
+        assertEquals(List.of(PersonFields.Field.ID, PersonFields.Field.NAME, PersonFields.Field.EMAIL),
+                List.copyOf(fields.fields()));
+    }
+
+    @Test
+    void testParseRejectsUnknownFields() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> PersonFields.valueOf("name,password"));
+        assertThrows(IllegalArgumentException.class, () -> PersonFields.valueOf("name,version"));
+    }
+
+    @Test
+    void testSelectFromEntity() {
+        // Arrange
+        Person person = Person.builder().id(7L).name("John Doe").email("john@example.com").age(25).version(2).build();
+
+        // Act
+        Map<String, Object> values = PersonFields.valueOf("age,email").select(person);
+
+        // Assert
+        assertEquals(Map.of("id", 7L, "email", "john@example.com", "age", 25), values);
+        assertEquals(List.of("id", "email", "age"), List.copyOf(values.keySet()));
+    }
+}
\ No newline at end of file
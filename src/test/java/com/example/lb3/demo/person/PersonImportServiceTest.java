@@ -0,0 +1,98 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Testcontainers
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PersonImportService.class)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+class PersonImportServiceTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1");
+
+    @Autowired
+    private PersonImportService importService;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+
+        repository.saveAndFlush(Person.builder()
+                .name("John Doe")
+                .email("john@example.com")
+                .age(25)
+                .build());
+    }
+
+    @Test
+    void testImportCsvSuccess() {
+        // Arrange
+        InputStream csv = body("""
+                name,email,age
+                Jane Doe,jane@example.com,30
+                "Smith, Alice",alice@example.com,35
+                No Email,,40
+                """);
+
+        // Act
+        PersonImportResult result = importService.importPersons(csv, PersonImportService.Format.CSV);
+
+        // Assert
+        assertEquals(3, result.inserted());
+        assertEquals(0, result.rejected());
+        assertTrue(result.errors().isEmpty());
+        assertEquals(4, repository.count());
+        assertEquals("Smith, Alice", repository.findByEmail("alice@example.com").orElseThrow().getName());
+    }
+
+    @Test
+    void testImportNdjsonRejectsInvalidAndDuplicateRows() {
+        // Arrange
+        InputStream ndjson = body("""
+                {"name":"Jane Doe","email":"jane@example.com","age":30}
+                {"name":"Jane Again","email":"jane@example.com","age":31}
+                {"name":"Existing","email":"john@example.com","age":32}
+                {"name":"","email":"blank@example.com","age":33}
+                {"name":"Invalid","email":"not-an-email","age":34}
+                {broken
+                """);
+
+        // Act
+        PersonImportResult result = importService.importPersons(ndjson, PersonImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(1, result.inserted());
+        assertEquals(5, result.rejected());
+        assertEquals(5, result.errors().size());
+        assertTrue(result.errors().contains("line 2: email already exists: jane@example.com"));
+        assertTrue(result.errors().contains("line 3: email already exists: john@example.com"));
+        assertEquals("Jane Doe", repository.findByEmail("jane@example.com").orElseThrow().getName());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PersonNameIndexTest {
+    private final PersonRepository repository = mock(PersonRepository.class);
+    private final PersonNameIndex index =
+            new PersonNameIndex(repository, mock(PlatformTransactionManager.class), DataSize.ofMegabytes(1));
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+    }
+
+    @Test
+    void testSuggestMatchesWordStartsIgnoringCaseAndAccents() {
+        // Arrange
+        load(new PersonName(1, "John Doe", 0),
+                new PersonName(2, "Jöhanna Smith", 0),
+                new PersonName(3, "Mary Johnson", 0),
+                new PersonName(4, "Bob Marley", 0));
+
+        // Act
+        List<PersonNameSuggestion> suggestions = index.suggest("JOH", 10).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(2L, 1L, 3L), suggestions.stream().map(PersonNameSuggestion::id).toList());
+        assertEquals("Jöhanna Smith", suggestions.get(0).name());
+        assertTrue(index.suggest("ohn", 10).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void testSuggestReturnsTopKInKeyOrderWithoutDuplicates() {
+        // Arrange
+        load(new PersonName(1, "Anna Anderson", 0),
+                new PersonName(2, "Andy Brown", 0),
+                new PersonName(3, "Alice Green", 0));
+
+        // Act
+        List<PersonNameSuggestion> suggestions = index.suggest("an", 2).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(1L, 2L), suggestions.stream().map(PersonNameSuggestion::id).toList());
+    }
+
+    @Test
+    void testChangesOverrideTheBaseUntilCompaction() {
+        // Arrange
+        load(new PersonName(1, "John Doe", 0), new PersonName(2, "Jane Doe", 0));
+
+        // Act
+        index.onPersonsChanged(PersonsChangedEvent.saved(List.of(
+                Person.builder().id(1L).name("Peter Doe").build(),
+                Person.builder().id(3L).name("Johnny Cash").build())));
+        index.onPersonsChanged(PersonsChangedEvent.removed(List.of(2L)));
+
+        // Assert
+        assertEquals(List.of(3L), index.suggest("jo", 10).orElseThrow().stream().map(PersonNameSuggestion::id).toList());
+        assertEquals(List.of(1L), index.suggest("doe", 10).orElseThrow().stream().map(PersonNameSuggestion::id).toList());
+        assertEquals(3, index.stats().pendingChanges());
+
+        index.compact();
+        assertEquals(0, index.stats().pendingChanges());
+        assertEquals(2, index.stats().names());
+        assertEquals(List.of(1L), index.suggest("peter", 10).orElseThrow().stream().map(PersonNameSuggestion::id).toList());
+        assertEquals(List.of(3L), index.suggest("cash", 10).orElseThrow().stream().map(PersonNameSuggestion::id).toList());
+    }
+
+    @Test
+    void testIndexOverBudgetIsDisabled() {
+        // Arrange
+        PersonNameIndex small = new PersonNameIndex(repository, mock(PlatformTransactionManager.class), DataSize.ofBytes(512));
+        when(repository.streamAllNames()).thenReturn(Stream.generate(() -> new PersonName(1, "John Doe", 0)).limit(100));
+        small.onPersonsChanged(PersonsChangedEvent.saved(List.of(Person.builder().id(2L).name("Jane Doe").build())));
+
+        // Act
+        PersonNameIndexStats stats = small.rebuild();
+
+        // Assert
+        assertEquals(PersonNameIndex.Status.OVER_BUDGET, stats.status());
+        assertEquals(0, stats.pendingChanges());
+        assertTrue(small.suggest("john", 10).isEmpty());
+        small.close();
+    }
+
+    @Test
+    void testOlderSaveThanTheIndexedVersionIsIgnored() {
+        // Arrange
+        load(new PersonName(1, "John Doe", 3), new PersonName(2, "Jane Doe", 0));
+
+        // Act
+        index.onPersonsChanged(PersonsChangedEvent.saved(List.of(
+                Person.builder().id(1L).name("Peter Doe").version(2).build(),
+                Person.builder().id(2L).name("Mary Doe").version(2).build())));
+        index.onPersonsChanged(PersonsChangedEvent.saved(List.of(Person.builder().id(2L).name("Ann Doe").version(1).build())));
+
+        // Assert
+        assertEquals(List.of(1L), index.suggest("john", 10).orElseThrow().stream().map(PersonNameSuggestion::id).toList());
+        assertEquals(List.of(2L), index.suggest("mary", 10).orElseThrow().stream().map(PersonNameSuggestion::id).toList());
+        assertTrue(index.suggest("peter", 10).orElseThrow().isEmpty());
+        assertTrue(index.suggest("ann", 10).orElseThrow().isEmpty());
+    }
+
+    private void load(PersonName... names) {
+        when(repository.streamAllNames()).thenReturn(Stream.of(names));
+        index.rebuild();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonQueryTest {
+    @Test
+    void testSortBreaksTiesById() {
+        // Act & Assert
+        assertEquals(Sort.by(Sort.Direction.DESC, "age").and(Sort.by("id")), PersonQuery.sort("-age"));
+        assertEquals(Sort.by("id"), PersonQuery.sort("id"));
+    }
+
+    @Test
+    void testSortRejectsUnknownProperties() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> PersonQuery.sort("version"));
+        assertThrows(IllegalArgumentException.class, () -> PersonQuery.sort("-"));
+    }
+}
\ No newline at end of file
@@ -5,14 +5,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static com.example.lb3.demo.config.SqlStatementAssertions.assertMaxStatements;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -26,6 +33,9 @@ class PersonRepositoryTest {
     @Autowired
     private PersonRepository repository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Person testPerson;
 
     @BeforeEach
@@ -463,6 +473,126 @@ class PersonRepositoryTest {
         assertEquals(3, repository.countByNameContainingIgnoreCase("JOHN"));
     }
 
+    @Test
+    void testCountByAgeGroupsWithOptionalFilters() {
+        // Arrange
+        repository.save(Person.builder()
+                .name("Johnny Walker")
+                .email("johnny@example.com")
+                .age(30)
+                .build());
+
+        repository.save(Person.builder()
+                .name("Jane Smith")
+                .email("jane@test.org")
+                .age(25)
+                .build());
+
+        // Act
+        List<PersonAgeCount> all = repository.countByAgeGroups("", "", 0, Integer.MAX_VALUE);
+        List<PersonAgeCount> byName = repository.countByAgeGroups("JOHN", "", 0, Integer.MAX_VALUE);
+        List<PersonAgeCount> byEmailAndAge = repository.countByAgeGroups("", "example", 26, 40);
+
+        // Assert
+        assertEquals(List.of(25, 30), all.stream().map(PersonAgeCount::getAge).toList());
+        assertEquals(List.of(2L, 1L), all.stream().map(PersonAgeCount::getCount).toList());
+        assertEquals(List.of(25, 30), byName.stream().map(PersonAgeCount::getAge).toList());
+        assertEquals(List.of(1L, 1L), byName.stream().map(PersonAgeCount::getCount).toList());
+        assertEquals(List.of(30), byEmailAndAge.stream().map(PersonAgeCount::getAge).toList());
+        assertTrue(repository.countByAgeGroups("%", "", 0, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void testFindFieldsReadsOnlyRequestedColumns() {
+        // Arrange
+        repository.save(Person.builder()
+                .name("Johnny Walker")
+                .email("johnny@example.com")
+                .age(30)
+                .build());
+
+        repository.save(Person.builder()
+                .name("Jane Smith")
+                .email("jane@example.com")
+                .age(35)
+                .build());
+
+        // Act
+        List<Map<String, Object>> rows = repository.findFields(PersonFields.valueOf("name,age"),
+                PersonSpecifications.nameContainsIgnoreCase("JOHN"), Sort.by(Sort.Direction.DESC, "age"), Limit.of(10));
+
+        // Assert
+        assertEquals(2, rows.size());
+        assertEquals(List.of("id", "name", "age"), List.copyOf(rows.get(0).keySet()));
+        assertEquals("Johnny Walker", rows.get(0).get("name"));
+        assertEquals(30, rows.get(0).get("age"));
+        assertEquals(testPerson.getId(), rows.get(1).get("id"));
+    }
+
+    @Test
+    void testFindAllByIdReadsTheIdsInOneStatement() {
+        // Arrange
+        Person other = repository.save(Person.builder()
+                .name("Jane Smith")
+                .email("jane@example.com")
+                .age(30)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Person> found = assertMaxStatements(1,
+                () -> repository.findAllById(List.of(testPerson.getId(), other.getId())));
+
+        // Assert
+        assertEquals(2, found.size());
+    }
+
+    @Test
+    void testDeleteAllByIdInBatchIsOneStatement() {
+        // Arrange
+        Person other = repository.save(Person.builder()
+                .name("Jane Smith")
+                .email("jane@example.com")
+                .age(30)
+                .build());
+        entityManager.flush();
+
+        // Act
+        assertMaxStatements(1, () -> repository.deleteAllByIdInBatch(List.of(testPerson.getId(), other.getId())));
+
+        // Assert
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void testFindByComposedQuery() {
+        // Arrange
+        repository.save(Person.builder()
+                .name("Johnny Walker")
+                .email("johnny@example.com")
+                .age(30)
+                .build());
+
+        repository.save(Person.builder()
+                .name("John Smith")
+                .email("smith@test.org")
+                .age(40)
+                .build());
+
+        PersonQuery query = new PersonQuery(null, "JOHN", null, "example", 26, null);
+
+        // Act
+        List<Person> found = repository.findBy(query.toSpecification(),
+                fluent -> fluent.sortBy(PersonQuery.sort("-age")).limit(10).all());
+        List<Person> all = repository.findBy(new PersonQuery(null, null, null, null, null, null).toSpecification(),
+                fluent -> fluent.sortBy(PersonQuery.sort("-name")).limit(2).all());
+
+        // Assert
+        assertEquals(List.of("Johnny Walker"), found.stream().map(Person::getName).toList());
+        assertEquals(List.of("Johnny Walker", "John Smith"), all.stream().map(Person::getName).toList());
+    }
+
     @Test
     void testDeleteByEmailSuccess() {
         // Arrange
@@ -475,9 +605,10 @@ class PersonRepositoryTest {
         long initialCount = repository.count();
 
         // Act
-        repository.deleteByEmail("john@example.com");
+        List<Long> deleted = repository.deleteByEmail("john@example.com");
 
         // Assert
+        assertEquals(1, deleted.size());
         assertFalse(repository.existsByEmail("john@example.com"));
         assertTrue(repository.existsByEmail("jane@example.com"));
         assertEquals(initialCount - 1, repository.count());
@@ -501,9 +632,11 @@ class PersonRepositoryTest {
         long initialCount = repository.count();
 
         // Act
-        repository.deleteByNameAndAge("John Doe", 25);
+        List<Long> deleted = repository.deleteByNameAndAge("John Doe", 25);
 
         // Assert
+        assertEquals(2, deleted.size());
+        assertTrue(deleted.contains(secondPerson.getId()));
         assertEquals(initialCount - 2, repository.count());
         assertTrue(repository.existsByNameAndAge("John Doe", 30));
         assertFalse(repository.existsByEmail("john@example.com"));
@@ -567,6 +700,24 @@ class PersonRepositoryTest {
         assertTrue(found.stream().anyMatch(p -> p.getEmail().equals("john.alice@example.com")));
     }
 
+    @Test
+    void testSearchByNameOrEmailKeywordMatchesWildcardsLiterally() {
+        // Arrange
+        repository.save(Person.builder()
+                .name("100% Real_Name")
+                .email("real@example.com")
+                .age(30)
+                .build());
+
+        // Act
+        List<Person> literal = repository.searchByNameOrEmailKeyword("0% REAL_");
+        List<Person> wildcard = repository.searchByNameOrEmailKeyword("J%n");
+
+        // Assert
+        assertEquals(1, literal.size());
+        assertTrue(wildcard.isEmpty());
+    }
+
     @Test
     void testFindOldestPeopleSuccess() {
         // Arrange
@@ -673,4 +824,253 @@ class PersonRepositoryTest {
         assertEquals(35, first5.get(3).getAge());
         assertEquals(40, first5.get(4).getAge());
     }
+
+    @Test
+    void testFindByIdGreaterThanOrderByIdAscSuccess() {
+        // Arrange
+        Person second = repository.save(Person.builder()
+                .name("Jane Doe")
+                .email("jane@example.com")
+                .age(30)
+                .build());
+
+        Person third = repository.save(Person.builder()
+                .name("Alice Smith")
+                .email("alice@example.com")
+                .age(35)
+                .build());
+
+        // Act
+        List<Person> firstPage = repository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(2));
+        List<Person> secondPage = repository.findByIdGreaterThanOrderByIdAsc(
+                firstPage.get(1).getId(), Limit.of(2));
+
+        // Assert
+        assertEquals(2, firstPage.size());
+        assertEquals(testPerson.getId(), firstPage.get(0).getId());
+        assertEquals(second.getId(), firstPage.get(1).getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(third.getId(), secondPage.get(0).getId());
+    }
+
+    @Test
+    void testFindByAgeOrderByNameAscAfterSuccess() {
+        // Arrange
+        repository.save(Person.builder()
+                .name("Alice Smith")
+                .email("alice@example.com")
+                .age(25)
+                .build());
+
+        repository.save(Person.builder()
+                .name("John Doe")
+                .email("johndoe2@example.com")
+                .age(25)
+                .build());
+
+        repository.save(Person.builder()
+                .name("Zoe Brown")
+                .email("zoe@example.com")
+                .age(25)
+                .build());
+
+        // Act
+        List<Person> firstPage = repository.findByAgeOrderByNameAscIdAsc(25, Limit.of(2));
+        PersonCursor cursor = PersonCursor.decode(PersonCursor.of(firstPage.get(1)).encode());
+        List<Person> secondPage = repository.findByAgeOrderByNameAscAfter(25, cursor.name(), cursor.id(), Limit.of(2));
+
+        // Assert
+        assertEquals(2, firstPage.size());
+        assertEquals("Alice Smith", firstPage.get(0).getName());
+        assertEquals(testPerson.getId(), firstPage.get(1).getId());
+        assertEquals(2, secondPage.size());
+        assertEquals("johndoe2@example.com", secondPage.get(0).getEmail());
+        assertEquals("Zoe Brown", secondPage.get(1).getName());
+    }
+
+    @Test
+    void testAgeAndIdAfterPagesByAgeAndIdSuccess() {
+        // Arrange
+        Person sameAge = repository.save(Person.builder()
+                .name("Alice Smith")
+                .email("alice@example.com")
+                .age(25)
+                .build());
+
+        Person older = repository.save(Person.builder()
+                .name("Zoe Brown")
+                .email("zoe@example.com")
+                .age(40)
+                .build());
+
+        repository.save(Person.builder()
+                .name("Tom Young")
+                .email("tom@example.com")
+                .age(18)
+                .build());
+
+        Sort byAge = Sort.by("age", "id");
+
+        // Act
+        List<Person> firstPage = repository.findBy(PersonSpecifications.ageGreaterThan(20),
+                fluent -> fluent.sortBy(byAge).limit(2).all());
+        PersonAgeCursor cursor = PersonAgeCursor.decode(PersonAgeCursor.of(firstPage.get(1)).encode());
+        List<Person> secondPage = repository.findBy(PersonSpecifications.ageGreaterThan(20)
+                        .and(PersonSpecifications.ageAndIdAfter(cursor.age(), cursor.id())),
+                fluent -> fluent.sortBy(byAge).limit(2).all());
+
+        // Assert
+        assertEquals(List.of(testPerson.getId(), sameAge.getId()), firstPage.stream().map(Person::getId).toList());
+        assertEquals(List.of(older.getId()), secondPage.stream().map(Person::getId).toList());
+    }
+
+    @Test
+    void testAgeDescendingAndIdAfterPagesByAgeDescendingSuccess() {
+        // Arrange
+        Person older = repository.save(Person.builder()
+                .name("John Doe")
+                .email("johndoe2@example.com")
+                .age(40)
+                .build());
+
+        Person sameAge = repository.save(Person.builder()
+                .name("John Doe")
+                .email("johndoe3@example.com")
+                .age(25)
+                .build());
+
+        Sort byAgeDescending = Sort.by(Sort.Direction.DESC, "age").and(Sort.by("id"));
+
+        // Act
+        List<Person> firstPage = repository.findBy(PersonSpecifications.nameEquals("John Doe"),
+                fluent -> fluent.sortBy(byAgeDescending).limit(2).all());
+        PersonAgeCursor cursor = PersonAgeCursor.of(firstPage.get(1));
+        List<Person> secondPage = repository.findBy(PersonSpecifications.nameEquals("John Doe")
+                        .and(PersonSpecifications.ageDescendingAndIdAfter(cursor.age(), cursor.id())),
+                fluent -> fluent.sortBy(byAgeDescending).limit(2).all());
+
+        // Assert
+        assertEquals(List.of(older.getId(), testPerson.getId()), firstPage.stream().map(Person::getId).toList());
+        assertEquals(List.of(sameAge.getId()), secondPage.stream().map(Person::getId).toList());
+    }
+
+    @Test
+    void testStreamAllSuccess() {
+        // Arrange
+        Person secondPerson = repository.save(Person.builder()
+                .name("Jane Doe")
+                .email("jane@example.com")
+                .age(30)
+                .build());
+
+        // Act
+        List<Long> ids;
+        try (Stream<Person> people = repository.streamAll()) {
+            ids = people.map(Person::getId).toList();
+        }
+
+        // Assert
+        assertEquals(List.of(testPerson.getId(), secondPerson.getId()), ids);
+    }
+
+    @Test
+    void testFindExistingIdsAndDeleteAllByIdInBatchSuccess() {
+        // Arrange
+        Person secondPerson = repository.save(Person.builder()
+                .name("Jane Doe")
+                .email("jane@example.com")
+                .age(30)
+                .build());
+        Long missingId = secondPerson.getId() + 1000;
+
+        // Act
+        List<Long> existing = repository.findExistingIds(List.of(testPerson.getId(), secondPerson.getId(), missingId));
+        repository.deleteAllByIdInBatch(existing);
+
+        // Assert
+        assertEquals(2, existing.size());
+        assertFalse(existing.contains(missingId));
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void testDeleteAllInBulkSuccess() {
+        // Arrange
+        repository.save(Person.builder()
+                .name("Jane Doe")
+                .email("jane@example.com")
+                .age(30)
+                .build());
+
+        // Act
+        int deleted = repository.deleteAllInBulk();
+
+        // Assert
+        assertEquals(2, deleted);
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void testTruncateSuccess() {
+        // Arrange
+        repository.saveAndFlush(Person.builder()
+                .name("Jane Doe")
+                .email("jane@example.com")
+                .age(30)
+                .build());
+
+        // Act
+        repository.lockTable();
+        repository.truncate();
+
+        // Assert
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void testSaveAndFlushDuplicateEmailFails() {
+        // Arrange
+        Person duplicate = Person.builder()
+                .name("Other John")
+                .email("john@example.com")
+                .age(40)
+                .build();
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> repository.saveAndFlush(duplicate));
+    }
+
+    @Test
+    void testUpdateReturningIncrementsVersionSuccess() {
+        // Arrange
+        entityManager.flush();
+        entityManager.clear();
+        long version = testPerson.getVersion();
+
+        // Act
+        Optional<Person> updated = repository.updateReturning(testPerson.getId(), "John Updated", "john@example.com", 26);
+
+        // Assert
+        assertTrue(updated.isPresent());
+        assertEquals("John Updated", updated.get().getName());
+        assertEquals(26, updated.get().getAge());
+        assertEquals(version + 1, updated.get().getVersion());
+    }
+
+    @Test
+    void testUpdateReturningIfVersionConflict() {
+        // Arrange
+        entityManager.flush();
+        entityManager.clear();
+        long staleVersion = testPerson.getVersion() + 1;
+
+        // Act
+        Optional<Person> updated = repository.updateReturningIfVersion(testPerson.getId(), List.of(staleVersion),
+                "John Updated", "john@example.com", 26);
+
+        // Assert
+        assertTrue(updated.isEmpty());
+        assertTrue(repository.updateReturningIfVersion(testPerson.getId(), List.of(staleVersion, testPerson.getVersion()),
+                "John Updated", "john@example.com", 26).isPresent());
+    }
 }
\ No newline at end of file
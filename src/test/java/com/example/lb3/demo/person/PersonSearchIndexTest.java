@@ -0,0 +1,186 @@
+package com.example.lb3.demo.person;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plans depend on table statistics, so the table is filled to a realistic size and analyzed first
+@DataJpaTest
+@Testcontainers
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PersonSearchIndexTest {
+    private static final int ROWS = 50_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1");
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        jdbcTemplate.update("""
+                INSERT INTO person (id, name, email, age)
+                SELECT nextval('person_seq'),
+                       (ARRAY['John', 'Jane', 'Alice', 'Bob'])[i % 4 + 1] || ' ' || md5(i::text),
+                       md5(i::text) || '@example.com',
+                       i % 100
+                FROM generate_series(1, ?) i""", ROWS);
+        // A bulk load sits in the GIN pending lists until (auto)vacuum merges it, which the planner prices in
+        jdbcTemplate.queryForList("SELECT gin_clean_pending_list(index) FROM unnest(ARRAY["
+                + "'person_name_trgm_idx'::regclass, 'person_email_trgm_idx'::regclass]) index");
+        jdbcTemplate.execute("ANALYZE person");
+    }
+
+    @Test
+    void testSearchByNameUsesTrigramIndex() {
+        // Arrange
+        String keyword = md5Part(42, 5);
+
+        // Act
+        String plan = explain(PersonRepository.SEARCH_BY_NAME, keyword.toUpperCase());
+
+        // Assert
+        assertTrue(plan.contains("person_name_trgm_idx"), plan);
+        assertEquals(1, repository.findByNameContainingIgnoreCase(keyword.toUpperCase()).size());
+    }
+
+    @Test
+    void testSearchByEmailUsesTrigramIndex() {
+        // Arrange
+        String keyword = md5Part(4242, 21) + "@EXAMPLE";
+
+        // Act
+        String plan = explain(PersonRepository.SEARCH_BY_EMAIL, keyword);
+
+        // Assert
+        assertTrue(plan.contains("person_email_trgm_idx"), plan);
+        assertEquals(1, repository.findByEmailContainingIgnoreCase(keyword).size());
+    }
+
+    @Test
+    void testCountAndFirst5ByNameUseTrigramIndex() {
+        // Arrange
+        String keyword = md5Part(7, 5);
+
+        // Act
+        String countPlan = explain(PersonRepository.COUNT_BY_NAME, keyword);
+        String first5Plan = explain(PersonRepository.FIRST_5_BY_NAME_ORDER_BY_AGE, keyword);
+
+        // Assert
+        assertTrue(countPlan.contains("person_name_trgm_idx"), countPlan);
+        assertTrue(first5Plan.contains("person_name_trgm_idx"), first5Plan);
+        assertEquals(1, repository.countByNameContainingIgnoreCase(keyword));
+        assertEquals(1, repository.findFirst5ByNameContainingOrderByAgeAsc(keyword).size());
+    }
+
+    @Test
+    void testLikeWildcardsInKeywordAreMatchedLiterally() {
+        // Arrange
+        repository.save(Person.builder()
+                .name("100% Real_Name")
+                .email("real@example.com")
+                .age(30)
+                .build());
+
+        // Act
+        List<Person> literal = repository.findByNameContainingIgnoreCase("0% real_");
+        List<Person> wildcard = repository.findByNameContainingIgnoreCase("J%n");
+
+        // Assert
+        assertEquals(1, literal.size());
+        assertTrue(wildcard.isEmpty());
+    }
+
+    @Test
+    void testRankedSearchUsesFullTextIndex() {
+        // Arrange
+        String prefix = md5Part(42, 1).substring(0, 8) + ":*";
+
+        // Act
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM person WHERE search_vector @@ to_tsquery('simple', ?)", String.class, prefix));
+        List<PersonSearchHit> found = repository.searchRanked(prefix, 10);
+
+        // Assert
+        assertTrue(plan.contains("person_search_vector_idx"), plan);
+        assertEquals(1, found.size());
+    }
+
+    @Test
+    void testRankedSearchPutsNameMatchesFirst() {
+        // Arrange
+        Person byEmail = repository.save(Person.builder()
+                .name("Other Person")
+                .email("searchable.user@example.com")
+                .age(30)
+                .build());
+        Person byName = repository.save(Person.builder()
+                .name("Searchable Person")
+                .email("other@example.com")
+                .age(40)
+                .build());
+        repository.flush();
+
+        // Act
+        List<PersonSearchHit> found = repository.searchRanked("searchab:* & person:*", 10);
+        List<PersonSearchHit> firstPage = repository.searchRanked("searchab:*", 1);
+        PersonRankCursor cursor = PersonRankCursor.decode(PersonRankCursor.of(firstPage.get(0)).encode());
+        List<PersonSearchHit> secondPage = repository.searchRankedAfter("searchab:*", cursor.rank(), cursor.id(), 10);
+
+        // Assert
+        assertEquals(List.of(byName.getId(), byEmail.getId()), found.stream().map(PersonSearchHit::getId).toList());
+        assertEquals(List.of(byName.getId()), firstPage.stream().map(PersonSearchHit::getId).toList());
+        assertEquals(List.of(byEmail.getId()), secondPage.stream().map(PersonSearchHit::getId).toList());
+    }
+
+    @Test
+    void testRankedSearchRanksEveryMatch() {
+        // Arrange
+        Person best = repository.saveAndFlush(Person.builder()
+                .name("John John")
+                .email("john.john@example.com")
+                .age(30)
+                .build());
+
+        // Act
+        List<PersonSearchHit> found = repository.searchRanked("john:*", 1);
+        List<PersonSearchHit> next = repository.searchRankedAfter("john:*", found.get(0).getRank(), best.getId(), 2);
+
+        // Assert
+        assertEquals(best.getId(), found.get(0).getId());
+        assertEquals("John John", found.get(0).toPerson().getName());
+        assertEquals(2, next.size());
+        assertTrue(next.stream().allMatch(hit -> hit.getRank() < found.get(0).getRank()
+                || hit.getRank() == found.get(0).getRank() && hit.getId() > best.getId()));
+    }
+
+    private String md5Part(int row, int from) {
+        return jdbcTemplate.queryForObject("SELECT substr(md5(?::text), ?, 12)", String.class, row, from);
+    }
+
+    // The repository queries bind the keyword as ?1, JDBC needs it once per occurrence
+    private String explain(String query, String keyword) {
+        String[] parts = query.split("\\?1", -1);
+        Object[] keywords = new Object[parts.length - 1];
+        Arrays.fill(keywords, keyword);
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + String.join("?", parts), String.class, keywords));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.example.lb3.demo.person;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PersonServiceEventsTest {
+    private final PersonServiceEvents events = new PersonServiceEvents();
+
+    @Test
+    void testCallIsRecordedWithArgumentShapeAndRows(@TempDir Path directory) throws Throwable {
+        // Arrange
+        ProceedingJoinPoint call = mock(ProceedingJoinPoint.class);
+        Signature signature = mock(Signature.class);
+        when(signature.getName()).thenReturn("lookup");
+        when(call.getSignature()).thenReturn(signature);
+        when(call.getArgs()).thenReturn(new Object[]{List.of(1L, 2L), "john@example.com", 10});
+        when(call.proceed()).thenReturn(List.of(Person.builder().id(1L).build()));
+        Path file = directory.resolve("events.jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.lb3.demo.PersonServiceCall");
+            recording.start();
+            events.record(call);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> recorded = RecordingFile.readAllEvents(file);
+        assertEquals(1, recorded.size());
+        RecordedEvent event = recorded.get(0);
+        assertEquals("lookup", event.getString("method"));
+        assertEquals("List[2], String(16), 10", event.getString("arguments"));
+        assertEquals(1, event.getLong("rows"));
+        assertEquals(-1, event.getLong("statements"));
+        assertNull(event.getString("endpoint"));
+    }
+
+    @Test
+    void testNothingIsRecordedWithoutARecording() throws Throwable {
+        // Arrange
+        ProceedingJoinPoint call = mock(ProceedingJoinPoint.class);
+        when(call.proceed()).thenReturn(List.of());
+
+        // Act
+        Object result = events.record(call);
+
+        // Assert
+        assertEquals(List.of(), result);
+        verify(call, never()).getArgs();
+    }
+}
\ No newline at end of file
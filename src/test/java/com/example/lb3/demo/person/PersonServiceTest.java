@@ -0,0 +1,179 @@
+package com.example.lb3.demo.person;
+
+import com.example.lb3.demo.config.ReadReplicaRoutingDataSource;
+import com.example.lb3.demo.config.ReplicaLagMonitor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// PersonService on a real database, the in-memory views it keeps in sync are mocked. The routing
+// tests ask a ReadReplicaRoutingDataSource with a healthy replica where a query would be sent.
+@DataJpaTest
+@Testcontainers
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PersonService.class, PersonEmailFilter.class})
+class PersonServiceTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1");
+
+    @MockBean
+    private PersonCache cache;
+
+    @MockBean
+    private PersonNameIndex nameIndex;
+
+    @MockBean
+    private PersonAgeIndex ageIndex;
+
+    @MockBean
+    private OldestPersonsTracker oldestTracker;
+
+    @Autowired
+    private PersonService service;
+
+    @SpyBean
+    private PersonRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int insertBatchSize;
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final ReplicaLagMonitor lagMonitor = mock(ReplicaLagMonitor.class);
+    private final ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replica, lagMonitor);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        repository.deleteAll();
+
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(mock(Connection.class));
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+    }
+
+    // The routing tests run outside the test transaction, their rows are committed
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testSaveAllInsertsInBatchesAndClearsThePersistenceContext() {
+        // Arrange
+        int count = insertBatchSize * 2 + 20;
+        List<Person> people = IntStream.range(0, count)
+                .mapToObj(i -> Person.builder()
+                        .name("Batch Person " + i)
+                        .email("batch" + i + "@example.com")
+                        .age(20 + i % 50)
+                        .build())
+                .toList();
+
+        // Act
+        List<Person> saved = service.saveAll(people);
+
+        // Assert
+        assertEquals(count, saved.size());
+        assertTrue(saved.stream().allMatch(p -> p.getId() != null));
+        assertEquals(count, saved.stream().map(Person::getId).distinct().count());
+        assertTrue(saved.stream().noneMatch(entityManager::contains));
+        assertEquals(count, repository.count());
+    }
+
+    @Test
+    void testUpdatePersonMatchesAnyExpectedVersion() {
+        // Arrange
+        Person person = repository.saveAndFlush(Person.builder().name("John Doe").email("john@example.com").age(25).build());
+        Person update = Person.builder().id(person.getId()).name("John Updated").email("john@example.com").age(26).build();
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> service.updatePerson(update, List.of()));
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> service.updatePerson(update, List.of(person.getVersion() + 1)));
+        Person updated = service.updatePerson(update, List.of(person.getVersion() + 1, person.getVersion()));
+        assertEquals(person.getVersion() + 1, updated.getVersion());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testCacheMissesAreLoadedFromThePrimary() {
+        // Arrange
+        Person person = repository.save(Person.builder().name("John Doe").email("john@example.com").age(25).build());
+        List<Boolean> onPrimary = new ArrayList<>();
+        when(cache.get(any(), any())).thenAnswer(invocation -> {
+            onPrimary.add(routedToPrimary());
+            return invocation.<Function<Long, Optional<Person>>>getArgument(1).apply(invocation.getArgument(0));
+        });
+        when(cache.getByEmail(any(), any())).thenAnswer(invocation -> {
+            onPrimary.add(routedToPrimary());
+            return invocation.<Supplier<Optional<Person>>>getArgument(1).get();
+        });
+
+        // Act
+        Optional<Person> byId = service.getPersonById(person.getId());
+        Optional<Person> byEmail = service.findByEmail("john@example.com");
+
+        // Assert
+        assertTrue(byId.isPresent());
+        assertTrue(byEmail.isPresent());
+        assertEquals(List.of(true, true), onPrimary);
+    }
+
+    private boolean routedToPrimary() throws SQLException {
+        return routing.getConnection() == primaryConnection;
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testRebuildEmailFilterScansThePrimary() {
+        // Arrange
+        List<Boolean> onPrimary = new ArrayList<>();
+        doAnswer(invocation -> {
+            onPrimary.add(routedToPrimary());
+            return Stream.of("john@example.com");
+        }).when(repository).streamAllEmails();
+
+        // Act
+        PersonEmailFilterStats stats = service.rebuildEmailFilter();
+
+        // Assert
+        assertEquals(List.of(true), onPrimary);
+        assertTrue(stats.ready());
+        assertEquals(1, stats.insertions());
+    }
+}
\ No newline at end of file